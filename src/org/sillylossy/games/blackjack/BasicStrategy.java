@@ -0,0 +1,268 @@
+package org.sillylossy.games.blackjack;
+
+import org.sillylossy.games.common.cards.Card;
+
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Optimal action for every player's total, soft or hard, against every dealer's upcard.
+ * <p>
+ * The table is generated by exact expected values under the rules of {@link BlackjackGame}:
+ * the dealer stands on all 17s and doesn't peek (a dealer's blackjack takes a doubled bet too),
+ * blackjack returns 3 bets, a double may be made at any point, takes a second stake ({@link BlackjackGame#doubleAction})
+ * and one card, and there is no split.
+ * Dealer's outcomes come from {@link DealerProbabilities} for the full shoe without the upcard;
+ * player's draws come from the same composition (a total-dependent strategy).
+ * <p>
+ * The table is shipped as a resource next to this class, so a hint is one array load.
+ */
+final class BasicStrategy implements Strategy {
+
+    /**
+     * Name of the table resource.
+     */
+    static final String RESOURCE = "basic-strategy.bin";
+
+    /**
+     * Table resource header.
+     */
+    private static final int MAGIC = 0x42535431;
+
+    /**
+     * Lowest total of a hard hand with two cards.
+     */
+    private static final int MIN_HARD = 4;
+
+    /**
+     * Lowest total of a soft hand (two aces).
+     */
+    private static final int MIN_SOFT = 12;
+
+    /**
+     * Number of table cells.
+     */
+    private static final int CELLS = 2 * (BlackjackHand.BLACKJACK + 1) * DealerProbabilities.POINT_VALUES;
+
+    /**
+     * Bits of a cell holding an action ordinal; the best action without doubling follows them.
+     */
+    private static final int ACTION_BITS = 2;
+
+    private static final int ACTION_MASK = (1 << ACTION_BITS) - 1;
+
+    private static final Action[] ACTIONS = Action.values();
+
+    /**
+     * Strategy for the game's shoe, loaded from the resource.
+     */
+    static final BasicStrategy DEFAULT = load();
+
+    /**
+     * Best action of every cell, with and without doubling.
+     */
+    private final byte[] table;
+
+    private BasicStrategy(byte[] table) {
+        this.table = table;
+    }
+
+    private static int cell(int total, boolean soft, int upCard) {
+        return ((soft ? BlackjackHand.BLACKJACK + 1 : 0) + total) * DealerProbabilities.POINT_VALUES + upCard;
+    }
+
+    /**
+     * Gets the best action.
+     *
+     * @param total     hand value
+     * @param soft      whether an ace is valued 11
+     * @param upCard    point index of dealer's open card
+     * @param canDouble whether a player can afford to double
+     */
+    Action getAction(int total, boolean soft, int upCard, boolean canDouble) {
+        int code = table[cell(total, soft, upCard)];
+        return ACTIONS[canDouble ? code & ACTION_MASK : code >>> ACTION_BITS & ACTION_MASK];
+    }
+
+    /**
+     * Gets the best action for a hand.
+     */
+    Action getAction(BlackjackHand hand, Card upCard, boolean canDouble) {
+        return getAction(hand.value(), hand.isSoft(), DealerProbabilities.pointIndex(upCard.getRankIndex()), canDouble);
+    }
+
+    @Override
+    public Action decide(BlackjackHand hand, Card upCard) {
+        return getAction(hand, upCard, true);
+    }
+
+    /**
+     * Loads the table resource, or generates a table for the game's shoe if the resource is missing or damaged.
+     */
+    private static BasicStrategy load() {
+        try (InputStream stream = BasicStrategy.class.getResourceAsStream(RESOURCE)) {
+            if (stream != null) {
+                DataInputStream in = new DataInputStream(stream);
+                if (in.readInt() == MAGIC) {
+                    byte[] table = new byte[CELLS];
+                    in.readFully(table);
+                    return new BasicStrategy(table);
+                }
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        return generate(BlackjackGame.DECKS);
+    }
+
+    /**
+     * Generates a strategy for a full shoe.
+     *
+     * @param decks number of decks in a shoe
+     */
+    static BasicStrategy generate(int decks) {
+        byte[] table = new byte[CELLS];
+        DealerProbabilities dealer = new DealerProbabilities(decks);
+        int[] shoe = new int[DealerProbabilities.POINT_VALUES];
+        double[] draws = new double[DealerProbabilities.POINT_VALUES];
+        for (int up = 0; up < DealerProbabilities.POINT_VALUES; up++) {
+            int total = 0;
+            for (int i = 0; i < shoe.length; i++) {
+                shoe[i] = DealerProbabilities.fullCount(decks, i) - (i == up ? 1 : 0);
+                total += shoe[i];
+            }
+            for (int i = 0; i < shoe.length; i++) {
+                draws[i] = (double) shoe[i] / total;
+            }
+            double[] outcomes = dealer.getProbabilities(up, shoe);
+            byte[] withDouble = solve(outcomes, draws, true);
+            byte[] withoutDouble = solve(outcomes, draws, false);
+            for (int soft = 0; soft < 2; soft++) {
+                for (int t = 0; t <= BlackjackHand.BLACKJACK; t++) {
+                    int index = soft * (BlackjackHand.BLACKJACK + 1) + t;
+                    table[cell(t, soft == 1, up)] = (byte) (withDouble[index] | withoutDouble[index] << ACTION_BITS);
+                }
+            }
+        }
+        return new BasicStrategy(table);
+    }
+
+    /**
+     * Finds best actions against one upcard.
+     *
+     * @param outcomes  dealer's outcomes
+     * @param draws     probability of a player drawing every point value
+     * @param canDouble whether doubling is allowed
+     * @return action ordinals of hard totals 0 - 21 followed by soft totals 0 - 21
+     */
+    private static byte[] solve(double[] outcomes, double[] draws, boolean canDouble) {
+        int size = BlackjackHand.BLACKJACK + 1;
+        double[] stand = new double[2 * size];
+        double[] best = new double[2 * size];
+        byte[] actions = new byte[2 * size];
+        for (int t = 0; t < size; t++) {
+            stand[t] = standValue(t, outcomes);
+            stand[size + t] = stand[t];
+        }
+        for (int t = BlackjackHand.BLACKJACK; t >= MIN_SOFT - 1; t--) {
+            choose(t, false, stand, best, actions, draws, canDouble);
+        }
+        for (int t = BlackjackHand.BLACKJACK; t >= MIN_SOFT; t--) {
+            choose(t, true, stand, best, actions, draws, canDouble);
+        }
+        for (int t = MIN_SOFT - 2; t >= MIN_HARD; t--) {
+            choose(t, false, stand, best, actions, draws, canDouble);
+        }
+        return actions;
+    }
+
+    /**
+     * Finds the best action of a total whose successors are solved.
+     */
+    private static void choose(int total, boolean soft, double[] stand, double[] best, byte[] actions,
+                               double[] draws, boolean canDouble) {
+        int size = BlackjackHand.BLACKJACK + 1;
+        int index = (soft ? size : 0) + total;
+        double hit = 0;
+        double doubled = 0;
+        for (int i = 0; i < draws.length; i++) {
+            int next = next(total, soft, i);
+            if (next < 0) {
+                hit -= draws[i];
+                doubled -= 2 * draws[i];
+            } else {
+                hit += draws[i] * best[next];
+                doubled += 2 * draws[i] * stand[next];
+            }
+        }
+        Action action = Action.STAND;
+        double value = stand[index];
+        if (total < BlackjackHand.BLACKJACK && hit > value) {
+            action = Action.HIT;
+            value = hit;
+        }
+        if (canDouble && total < BlackjackHand.BLACKJACK && doubled > value) {
+            action = Action.DOUBLE;
+            value = doubled;
+        }
+        best[index] = value;
+        actions[index] = (byte) action.ordinal();
+    }
+
+    /**
+     * Gets an index of a hand after drawing a card, or -1 if it busts.
+     */
+    private static int next(int total, boolean soft, int pointIndex) {
+        int size = BlackjackHand.BLACKJACK + 1;
+        int points = pointIndex + 1;
+        if (soft) {
+            int value = total + points;
+            return value <= BlackjackHand.BLACKJACK ? size + value : value - BlackjackHand.SOFT_BONUS;
+        }
+        if (points == 1 && total + 1 + BlackjackHand.SOFT_BONUS <= BlackjackHand.BLACKJACK) {
+            return size + total + 1 + BlackjackHand.SOFT_BONUS;
+        }
+        int value = total + points;
+        return value <= BlackjackHand.BLACKJACK ? value : -1;
+    }
+
+    /**
+     * Gets the expected value of standing on a total that isn't blackjack.
+     */
+    private static double standValue(int total, double[] outcomes) {
+        double value = outcomes[DealerProbabilities.BUST] - outcomes[DealerProbabilities.BLACKJACK];
+        for (int v = Dealer.STOP_VALUE; v <= BlackjackHand.BLACKJACK; v++) {
+            double p = outcomes[DealerProbabilities.SEVENTEEN + v - Dealer.STOP_VALUE];
+            value += total > v ? p : total < v ? -p : 0;
+        }
+        return value;
+    }
+
+    /**
+     * Generates the table for the game's shoe and writes the resource.
+     *
+     * @param args path of the resource file
+     */
+    public static void main(String[] args) throws IOException {
+        String path = args.length > 0 ? args[0] : "src/org/sillylossy/games/blackjack/" + RESOURCE;
+        BasicStrategy strategy = generate(BlackjackGame.DECKS);
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(path)))) {
+            out.writeInt(MAGIC);
+            out.write(strategy.table);
+        }
+        String[] letters = {"H", "S", "D"};
+        for (int soft = 0; soft < 2; soft++) {
+            for (int t = soft == 1 ? MIN_SOFT : MIN_HARD; t <= BlackjackHand.BLACKJACK; t++) {
+                StringBuilder line = new StringBuilder(String.format("%s %2d:", soft == 1 ? "soft" : "hard", t));
+                for (int up = 1; up <= DealerProbabilities.POINT_VALUES; up++) {
+                    line.append(' ').append(letters[strategy.getAction(t, soft == 1, up % DealerProbabilities.POINT_VALUES, true).ordinal()]);
+                }
+                System.out.println(line);
+            }
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package org.sillylossy.games.blackjack;
+
+/**
+ * Chooses a bet of a simulated round from the count before the deal.
+ */
+interface BetRamp {
+
+    /**
+     * Always bets one unit.
+     */
+    BetRamp FLAT = new BetRamp() {
+        @Override
+        public int bet(CardCounter counter) {
+            return 1;
+        }
+    };
+
+    /**
+     * Gets a bet in units (at least 1).
+     *
+     * @param counter count of the shoe before the deal
+     */
+    int bet(CardCounter counter);
+}
@@ -2,9 +2,8 @@ package org.sillylossy.games.blackjack;
 
 import org.sillylossy.games.common.Main;
 import org.sillylossy.games.common.cards.Card;
-import org.sillylossy.games.common.cards.Deck;
+import org.sillylossy.games.common.cards.Shoe;
 import org.sillylossy.games.common.game.CardGame;
-import org.sillylossy.games.common.game.StatEvent;
 
 /**
  * Blackjack game model.
@@ -17,93 +16,39 @@ public class BlackjackGame extends CardGame {
     public static final String GAME_NAME = "Blackjack";
 
     /**
-     * How many value points needed for "blackjack".
+     * Number of decks in a dealing shoe.
      */
-    private final static int BLACKJACK = 21;
+    final static int DECKS = 6;
+
+    /**
+     * Part of the shoe dealt before the cut card comes out.
+     */
+    final static double PENETRATION = 0.75;
 
     /**
      * A dealer assigned to a game instance.
      */
     private final Dealer dealer = new Dealer();
 
+    /**
+     * A shoe that is dealt from across rounds.
+     */
+    private final Shoe shoe = new Shoe(DECKS, PENETRATION);
+
+    /**
+     * Player's hand in this game. A player is shared by all games, so the game keeps a blackjack hand of its own.
+     */
+    private final BlackjackHand playerHand = new BlackjackHand();
+
     String getDealerValue() {
-        return getValue(dealer.getHand().getCards()) + " points";
-    }
-
-    /**
-     * Returns a numeric value that represents a hand's value.
-     * Cards with number have value of that number. Cards with picture (jack, queen, king)
-     * have 10 points value. Ace is valued 1 or 11 (as player wants).
-     */
-    int getValue(Card[] hand) {
-        int i = 0;
-        int j = 0;
-        for (Card card : hand) {
-            switch (card.getCardRank()) {
-                case ACE:
-                    i += 11;
-                    j += 1;
-                    break;
-                case EIGHT:
-                    i += 8;
-                    j += 8;
-                    break;
-                case FIVE:
-                    i += 5;
-                    j += 5;
-                    break;
-                case FOUR:
-                    i += 4;
-                    j += 4;
-                    break;
-                case JACK:
-                    i += 10;
-                    j += 10;
-                    break;
-                case KING:
-                    i += 10;
-                    j += 10;
-                    break;
-                case NINE:
-                    i += 9;
-                    j += 9;
-                    break;
-                case QUEEN:
-                    i += 10;
-                    j += 10;
-                    break;
-                case SEVEN:
-                    i += 7;
-                    j += 7;
-                    break;
-                case SIX:
-                    i += 6;
-                    j += 6;
-                    break;
-                case TEN:
-                    i += 10;
-                    j += 10;
-                    break;
-                case THREE:
-                    i += 3;
-                    j += 3;
-                    break;
-                case TWO:
-                    i += 2;
-                    j += 2;
-                    break;
-                default:
-                    break;
-            }
-        }
-        return i > BlackjackGame.BLACKJACK ? j : i;
+        return dealer.getHand().value() + " points";
     }
 
     /**
-     * Determines whether a player has "blackjack" (2 cards, total 21 value).
+     * Gets player's hand in this game.
      */
-    private boolean isBlackJack(Card[] hand) {
-        return hand.length == 2 && getValue(hand) == BLACKJACK;
+    BlackjackHand getPlayerHand() {
+        return playerHand;
     }
 
     /**
@@ -119,19 +64,38 @@ public class BlackjackGame extends CardGame {
     }
 
     /**
-     * Performs a double game event. If player has sufficient score, double's his bet and performs hit event.
+     * Checks whether player's score covers a second stake.
+     */
+    boolean canDouble() {
+        return player.getScore() >= player.getBet();
+    }
+
+    /**
+     * Performs a double game event. If player has sufficient score, takes a second stake and performs hit event.
      *
      * @return taken card or null if player has insufficient score
      */
     Card doubleAction() {
-        int newBet = player.getBet() * 2;
-        if (player.getScore() < newBet) {
+        if (!canDouble()) {
             return null;
         }
-        player.setBet(newBet);
+        player.decreaseScore(player.getBet());
+        player.setBet(player.getBet() * 2);
         return hitAction();
     }
 
+    /**
+     * Gets a basic strategy action for player's hand.
+     *
+     * @return best action or null if the hand is over
+     */
+    Strategy.Action getHint() {
+        if (playerHand.isEmpty() || shouldEnd()) {
+            return null;
+        }
+        return BasicStrategy.DEFAULT.getAction(playerHand, dealer.getOpenCard(), canDouble());
+    }
+
     /**
      * Gets maximum bet (half of player's score).
      */
@@ -161,57 +125,26 @@ public class BlackjackGame extends CardGame {
      * @return taken card
      */
     Card hitAction() {
-        Card card = deck.draw();
-        player.getHand().addCard(card);
+        Card card = shoe.draw();
+        playerHand.addCard(card);
         return card;
     }
 
+    /**
+     * Pays player's stake back by the outcome of the round.
+     */
+    Outcome settle() {
+        Outcome outcome = Outcome.of(playerHand, dealer.getHand());
+        player.increaseScore(outcome.settle(player.getBet()));
+        return outcome;
+    }
+
     @Override
     public String getResult() {
-        String result = "Can't identify result";
-        int bet = player.getBet();
-        Card[] playerCards = player.getHand().getCards();
-        Card[] dealerCards = dealer.getHand().getCards();
-        int dealerValue = getValue(dealerCards);
-        int playerValue = getValue(playerCards);
-        boolean playerBlackjack = isBlackJack(playerCards);
-        boolean dealerBlackjack = isBlackJack(dealerCards);
-        int increase = 0;
-        StatEvent statEvent = StatEvent.DRAW;
-        if (!playerBlackjack && dealerBlackjack) {
-            statEvent = StatEvent.LOST;
-            result = "You've lost. Dealer has blackjack";
-        } else if (playerBlackjack && dealerBlackjack) {
-            increase = bet;
-            statEvent = StatEvent.DRAW;
-            result = "Push. Dealer has blackjack too";
-        } else if (playerBlackjack) {
-            increase = bet * 3;
-            statEvent = StatEvent.WON;
-            result = "You've won: blackjack";
-        } else if (playerValue > BLACKJACK) {
-            statEvent = StatEvent.LOST;
-            result = "You've lost: bust";
-        } else if (dealerValue > BLACKJACK && playerValue <= BLACKJACK) {
-            increase = 2 * bet;
-            statEvent = StatEvent.WON;
-            result = "You've won: dealer bust";
-        } else if (playerValue > dealerValue) {
-            increase = 2 * bet;
-            statEvent = StatEvent.WON;
-            result = "You've won: you have more points than dealer";
-        } else if (playerValue == dealerValue) {
-            increase = bet;
-            statEvent = StatEvent.DRAW;
-            result = "Push. Your points with dealer are equal.";
-        } else if (playerValue < dealerValue) {
-            statEvent = StatEvent.LOST;
-            result = "You've lost: dealer has more points";
-        }
-        player.increaseScore(increase);
-        Main.getGameController().addStatEvent(player, statEvent);
+        Outcome outcome = settle();
+        Main.getGameController().addStatEvent(player, outcome.getStatEvent());
         Main.saveData();
-        return result;
+        return outcome.getMessage();
     }
 
     /**
@@ -219,29 +152,33 @@ public class BlackjackGame extends CardGame {
      */
     @Override
     public void reset() {
-        player.getHand().clear();
+        playerHand.clear();
         player.setBet(0);
         dealer.getHand().clear();
     }
 
     @Override
     public boolean shouldEnd() {
-        Card[] playerCards = player.getHand().getCards();
-        if (isBlackJack(playerCards)) {
-            return true;
-        } else if (getValue(playerCards) > BLACKJACK) {
-            return true;
-        }
-        return false;
+        return playerHand.isBlackjack() || playerHand.isBust();
+    }
+
+    /**
+     * Gets a dealing shoe.
+     */
+    Shoe getShoe() {
+        return shoe;
     }
 
+    /**
+     * Deals two cards to dealer and player from the shoe. The shoe is reshuffled first if the cut card came out.
+     */
     @Override
     protected void dealCards() {
-        setDeck(Deck.getFullDeck());
-        dealer.getHand().addCard(deck.draw());
-        dealer.getHand().addCard(deck.draw());
-        player.getHand().addCard(deck.draw());
-        player.getHand().addCard(deck.draw());
+        shoe.shuffleIfNeeded();
+        dealer.getHand().addCard(shoe.draw());
+        dealer.getHand().addCard(shoe.draw());
+        playerHand.addCard(shoe.draw());
+        playerHand.addCard(shoe.draw());
     }
 
     @Override
@@ -0,0 +1,111 @@
+package org.sillylossy.games.blackjack;
+
+import org.sillylossy.games.common.cards.Card;
+import org.sillylossy.games.common.cards.Hand;
+
+/**
+ * A blackjack hand that keeps its value as cards are added.
+ * <p>
+ * Cards with number have value of that number, cards with picture have 10 points, and ace is
+ * counted as 1 in a hard total. One ace is valued 11 when that doesn't bust the hand,
+ * so a hand value is found from the hard total and a number of aces without looking at the cards.
+ */
+final class BlackjackHand extends Hand {
+
+    /**
+     * How many value points needed for "blackjack".
+     */
+    static final int BLACKJACK = 21;
+
+    /**
+     * Extra points of an ace valued 11.
+     */
+    static final int SOFT_BONUS = 10;
+
+    /**
+     * Points of a card by rank index (0 = two, 12 = ace), ace counted as 1.
+     */
+    private static final int[] POINTS = {2, 3, 4, 5, 6, 7, 8, 9, 10, 10, 10, 10, 1};
+
+    /**
+     * Sum of points with every ace counted as 1.
+     */
+    private int hardTotal;
+
+    /**
+     * Number of aces in a hand.
+     */
+    private int aces;
+
+    /**
+     * Gets points of a card by rank index, ace counted as 1.
+     */
+    static int points(int rankIndex) {
+        return POINTS[rankIndex];
+    }
+
+    @Override
+    public void addCard(Card card) {
+        super.addCard(card);
+        count(card, 1);
+    }
+
+    @Override
+    public void removeCard(Card card) {
+        int size = size();
+        super.removeCard(card);
+        if (size() < size) {
+            count(card, -1);
+        }
+    }
+
+    @Override
+    public void clear() {
+        super.clear();
+        hardTotal = 0;
+        aces = 0;
+    }
+
+    private void count(Card card, int sign) {
+        int points = POINTS[card.getRankIndex()];
+        hardTotal += sign * points;
+        if (points == 1) {
+            aces += sign;
+        }
+    }
+
+    /**
+     * Gets a hand value (an ace is valued 11 if the hand doesn't bust).
+     */
+    int value() {
+        return isSoft() ? hardTotal + SOFT_BONUS : hardTotal;
+    }
+
+    /**
+     * Gets a value with every ace counted as 1.
+     */
+    int hardTotal() {
+        return hardTotal;
+    }
+
+    /**
+     * Checks whether an ace is valued 11.
+     */
+    boolean isSoft() {
+        return aces > 0 && hardTotal + SOFT_BONUS <= BLACKJACK;
+    }
+
+    /**
+     * Checks whether a hand has more than 21 points.
+     */
+    boolean isBust() {
+        return hardTotal > BLACKJACK;
+    }
+
+    /**
+     * Determines whether a hand is "blackjack" (2 cards, total 21 value).
+     */
+    boolean isBlackjack() {
+        return size() == 2 && aces == 1 && hardTotal == BLACKJACK - SOFT_BONUS;
+    }
+}
@@ -24,6 +24,11 @@ public class BlackjackPanel extends CardPanel {
     private static final String DEALER_RULES = "draw on 16, stand on hard 17";
 
     private static final String DEALER_LABEL = DEALER_TAG + DEALER_RULES;
+
+    /**
+     * Hint texts by action ordinal.
+     */
+    private static final String[] HINTS = {"hit", "stand", "double"};
     private static final List<Card> emptyList = new ArrayList<>();
     /**
      * Panel for other player's cards.
@@ -97,7 +102,7 @@ public class BlackjackPanel extends CardPanel {
         image = dealersCardsImages.get(dealersCardsImages.size() - 1);
         image.flip();
         image.updateIcon();
-        for (Card card : getGame().getPlayer().getHand().getCards()) {
+        for (Card card : getGame().getPlayerHand().getCards()) {
             image = new CardImage(card, false);
             playersCardsImages.add(image);
             playersCardsPanel.add(image.getLabel());
@@ -187,7 +192,11 @@ public class BlackjackPanel extends CardPanel {
         Player player = getGame().getPlayer();
         String status = "Player: " + player.toString() +
                 " bet: " + player.getBet() + "$ " +
-                "Hand value: " + getGame().getValue(player.getHand().getCards());
+                "Hand value: " + getGame().getPlayerHand().value();
+        Strategy.Action hint = getGame().getHint();
+        if (hint != null) {
+            status += " Hint: " + HINTS[hint.ordinal()];
+        }
         Main.getUI().updateStatus(status);
     }
 
@@ -195,7 +204,7 @@ public class BlackjackPanel extends CardPanel {
      * Processes game results, shows a result message.
      */
     protected void processResults() {
-        displayDealersCards(getGame().getDealer().play(getGame().getDeck()));
+        displayDealersCards(getGame().getDealer().play(getGame().getShoe()));
         lblPlayer.setText(getGame().getResult());
         actionButtonsPanel.setVisible(false);
         btnNewGame.setVisible(true);
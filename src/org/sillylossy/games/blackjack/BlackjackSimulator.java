@@ -0,0 +1,301 @@
+package org.sillylossy.games.blackjack;
+
+import org.sillylossy.games.common.cards.Card;
+import org.sillylossy.games.common.cards.Shoe;
+import org.sillylossy.games.common.cards.SplittableShuffleSource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Plays blackjack rounds without the UI, by the rules of {@link BlackjackGame}.
+ * <p>
+ * Rounds are split into fixed batches, and every batch is played with its own shoe, hands and
+ * shuffle stream split from one seed. Results of a seed don't depend on the number of threads,
+ * and playing a round allocates nothing. A {@link CardCounter} observes every shoe, so bets may
+ * follow the count.
+ */
+final class BlackjackSimulator {
+
+    /**
+     * Number of rounds played with one shoe.
+     */
+    private static final int BATCH = 1 << 16;
+
+    /**
+     * Lowest net result of a round in bets (a lost double).
+     */
+    private static final int MIN_NET = -2;
+
+    /**
+     * Highest net result of a round in bets (a blackjack or a won double).
+     */
+    private static final int MAX_NET = 2;
+
+    private final int decks;
+
+    private final double penetration;
+
+    private final int threads;
+
+    /**
+     * @param decks       number of decks in a shoe (1 - 8)
+     * @param penetration part of the shoe dealt before the cut card (0 - 1]
+     * @param threads     number of worker threads
+     */
+    BlackjackSimulator(int decks, double penetration, int threads) {
+        if (decks < Shoe.MIN_DECKS || decks > Shoe.MAX_DECKS) {
+            throw new IllegalArgumentException(String.format("Number of decks should be from %d to %d.", Shoe.MIN_DECKS, Shoe.MAX_DECKS));
+        }
+        if (!(penetration > 0 && penetration <= 1)) {
+            throw new IllegalArgumentException("Penetration should be greater than 0 and not greater than 1.");
+        }
+        if (threads <= 0) {
+            throw new IllegalArgumentException("Number of threads should be positive.");
+        }
+        this.decks = decks;
+        this.penetration = penetration;
+        this.threads = threads;
+    }
+
+    /**
+     * Plays rounds with a flat bet.
+     *
+     * @param strategy player's strategy
+     * @param rounds   number of rounds
+     * @param seed     seed of shuffles (equal seeds give equal results)
+     */
+    Report run(Strategy strategy, long rounds, long seed) throws InterruptedException {
+        return run(strategy, CardCounter.HI_LO, BetRamp.FLAT, rounds, seed);
+    }
+
+    /**
+     * Plays rounds with bets chosen by the count of the shoe.
+     *
+     * @param strategy player's strategy
+     * @param weights  weights of the count by rank index, see {@link CardCounter}
+     * @param ramp     chooses a bet from the count
+     * @param rounds   number of rounds
+     * @param seed     seed of shuffles (equal seeds give equal results)
+     */
+    Report run(final Strategy strategy, final int[] weights, final BetRamp ramp, long rounds, long seed)
+            throws InterruptedException {
+        if (rounds <= 0) {
+            throw new IllegalArgumentException("Number of rounds should be positive.");
+        }
+        if (weights.length != Card.RANKS) {
+            throw new IllegalArgumentException("Every rank should have a weight.");
+        }
+        SplittableShuffleSource root = new SplittableShuffleSource(seed);
+        List<Callable<Report>> tasks = new ArrayList<>();
+        for (long from = 0; from < rounds; from += BATCH) {
+            final int count = (int) Math.min(BATCH, rounds - from);
+            final SplittableShuffleSource source = root.split();
+            tasks.add(new Callable<Report>() {
+                @Override
+                public Report call() {
+                    return play(strategy, new CardCounter(weights, decks), ramp, count, source);
+                }
+            });
+        }
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            Report report = new Report();
+            for (Future<Report> future : pool.invokeAll(tasks)) {
+                report.add(future.get());
+            }
+            return report;
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Simulation failed.", e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * Plays a batch of rounds with a new shoe.
+     */
+    private Report play(Strategy strategy, CardCounter counter, BetRamp ramp, int count, SplittableShuffleSource source) {
+        Shoe shoe = new Shoe(decks, penetration, source);
+        shoe.addObserver(counter);
+        Dealer dealer = new Dealer();
+        BlackjackHand dealerHand = dealer.getHand();
+        BlackjackHand hand = new BlackjackHand();
+        Report report = new Report();
+        for (int round = 0; round < count; round++) {
+            shoe.shuffleIfNeeded();
+            int bet = ramp.bet(counter);
+            if (bet <= 0) {
+                throw new IllegalStateException("Bet should be positive.");
+            }
+            dealerHand.clear();
+            hand.clear();
+            dealerHand.addCard(shoe.draw());
+            dealerHand.addCard(shoe.draw());
+            hand.addCard(shoe.draw());
+            hand.addCard(shoe.draw());
+            int multiplier = playHand(strategy, hand, dealer.getOpenCard(), shoe);
+            dealer.drawCards(shoe);
+            report.record(Outcome.of(hand, dealerHand), bet, multiplier);
+        }
+        return report;
+    }
+
+    /**
+     * Plays player's hand by a strategy.
+     *
+     * @return bet in units of the initial bet
+     */
+    private static int playHand(Strategy strategy, BlackjackHand hand, Card upCard, Shoe shoe) {
+        if (hand.isBlackjack()) {
+            return 1;
+        }
+        while (!hand.isBust()) {
+            Strategy.Action action = strategy.decide(hand, upCard);
+            if (action == Strategy.Action.STAND) {
+                break;
+            }
+            hand.addCard(shoe.draw());
+            if (action == Strategy.Action.DOUBLE) {
+                return 2;
+            }
+        }
+        return 1;
+    }
+
+    /**
+     * Results of simulated rounds. Amounts are in betting units.
+     */
+    static final class Report {
+
+        private final long[] outcomes = new long[Outcome.values().length];
+
+        /**
+         * Numbers of rounds by net result in initial bets.
+         */
+        private final long[] nets = new long[MAX_NET - MIN_NET + 1];
+        private long rounds;
+        private long wagered;
+        private long sum;
+        private long squares;
+
+        /**
+         * @param bet        initial bet in units
+         * @param multiplier 2 if the bet was doubled, 1 otherwise
+         */
+        void record(Outcome outcome, int bet, int multiplier) {
+            int stake = bet * multiplier;
+            long amount = outcome.settle(stake) - stake;
+            int net = (int) (amount / bet);
+            outcomes[outcome.ordinal()]++;
+            nets[net - MIN_NET]++;
+            rounds++;
+            wagered += bet;
+            sum += amount;
+            squares += amount * amount;
+        }
+
+        void add(Report other) {
+            for (int i = 0; i < outcomes.length; i++) {
+                outcomes[i] += other.outcomes[i];
+            }
+            for (int i = 0; i < nets.length; i++) {
+                nets[i] += other.nets[i];
+            }
+            rounds += other.rounds;
+            wagered += other.wagered;
+            sum += other.sum;
+            squares += other.squares;
+        }
+
+        long getRounds() {
+            return rounds;
+        }
+
+        /**
+         * Gets an average initial bet.
+         */
+        double getAverageBet() {
+            return (double) wagered / rounds;
+        }
+
+        /**
+         * Gets the expected net result per unit of the initial bet.
+         */
+        double getEv() {
+            return (double) sum / wagered;
+        }
+
+        /**
+         * Gets the standard deviation of the net result of a round.
+         */
+        double getStandardDeviation() {
+            double mean = (double) sum / rounds;
+            return Math.sqrt((double) squares / rounds - mean * mean);
+        }
+
+        /**
+         * Gets the standard error of {@link #getEv()}.
+         */
+        double getStandardError() {
+            return getStandardDeviation() * Math.sqrt(rounds) / wagered;
+        }
+
+        /**
+         * Gets a number of rounds that ended with an outcome.
+         */
+        long getCount(Outcome outcome) {
+            return outcomes[outcome.ordinal()];
+        }
+
+        /**
+         * Gets a number of rounds with a net result in initial bets (-2 - 2).
+         */
+        long getNetCount(int net) {
+            return net < MIN_NET || net > MAX_NET ? 0 : nets[net - MIN_NET];
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder builder = new StringBuilder();
+            builder.append(String.format("Rounds: %d%n", rounds));
+            builder.append(String.format("Average bet: %.3f%n", getAverageBet()));
+            builder.append(String.format("EV: %+.5f (standard error %.5f)%n", getEv(), getStandardError()));
+            builder.append(String.format("Standard deviation: %.4f%n", getStandardDeviation()));
+            for (Outcome outcome : Outcome.values()) {
+                builder.append(String.format("%-18s %.6f%n", outcome, (double) getCount(outcome) / rounds));
+            }
+            for (int net = MIN_NET; net <= MAX_NET; net++) {
+                builder.append(String.format("Net %+d %.6f%n", net, (double) getNetCount(net) / rounds));
+            }
+            return builder.toString();
+        }
+    }
+
+    /**
+     * Simulates ten million rounds of the dealer-mimicking strategy with the game's shoe,
+     * then basic strategy with a flat bet and with a 1 - 8 Hi-Lo true count ramp.
+     */
+    public static void main(String[] args) throws InterruptedException {
+        BlackjackSimulator simulator = new BlackjackSimulator(BlackjackGame.DECKS, BlackjackGame.PENETRATION,
+                Runtime.getRuntime().availableProcessors());
+        BetRamp ramp = new BetRamp() {
+            @Override
+            public int bet(CardCounter counter) {
+                return (int) Math.max(1, Math.min(8, Math.floor(counter.getTrueCount())));
+            }
+        };
+        long start = System.nanoTime();
+        Report report = simulator.run(Strategy.MIMIC_DEALER, 10000000, 1);
+        System.out.print(report);
+        System.out.printf("%.0f rounds/s%n%n", report.getRounds() / ((System.nanoTime() - start) / 1e9));
+        System.out.print(simulator.run(BasicStrategy.DEFAULT, 10000000, 1));
+        System.out.println();
+        System.out.print(simulator.run(BasicStrategy.DEFAULT, CardCounter.HI_LO, ramp, 10000000, 1));
+    }
+}
@@ -0,0 +1,98 @@
+package org.sillylossy.games.blackjack;
+
+import org.sillylossy.games.common.cards.Card;
+import org.sillylossy.games.common.cards.ShoeObserver;
+
+/**
+ * Keeps a running count of cards drawn from a shoe, with a weight for every rank.
+ * <p>
+ * The count is updated on every draw, so the running and the true count are read in constant time.
+ * An unbalanced system (weights of a deck don't add up to zero) starts from minus its imbalance
+ * per deck, so its count is zero once the whole shoe is dealt.
+ */
+final class CardCounter implements ShoeObserver {
+
+    /**
+     * Hi-Lo weights by rank index (0 = two, 12 = ace): 2 - 6 count +1, tens and aces -1.
+     */
+    static final int[] HI_LO = {1, 1, 1, 1, 1, 0, 0, 0, -1, -1, -1, -1, -1};
+
+    /**
+     * Knock-Out weights by rank index: 2 - 7 count +1, tens and aces -1 (unbalanced).
+     */
+    static final int[] KO = {1, 1, 1, 1, 1, 1, 0, 0, -1, -1, -1, -1, -1};
+
+    /**
+     * Weights by card ID.
+     */
+    private final int[] weights = new int[Card.COUNT];
+
+    /**
+     * Running count of a full shoe.
+     */
+    private final int initialCount;
+
+    /**
+     * Number of cards in a full shoe.
+     */
+    private final int shoeSize;
+
+    private int runningCount;
+
+    /**
+     * Number of cards drawn since the last shuffle.
+     */
+    private int drawn;
+
+    /**
+     * @param rankWeights weight of every rank index (0 = two, 12 = ace)
+     * @param decks       number of decks in the observed shoe
+     */
+    CardCounter(int[] rankWeights, int decks) {
+        if (rankWeights.length != Card.RANKS) {
+            throw new IllegalArgumentException("Every rank should have a weight.");
+        }
+        if (decks <= 0) {
+            throw new IllegalArgumentException("Number of decks should be positive.");
+        }
+        int imbalance = 0;
+        for (int id = 0; id < Card.COUNT; id++) {
+            weights[id] = rankWeights[Card.rankOf(id)];
+            imbalance += weights[id];
+        }
+        initialCount = -imbalance * decks;
+        shoeSize = decks * Card.COUNT;
+        shuffled();
+    }
+
+    @Override
+    public void cardDrawn(int id) {
+        runningCount += weights[id];
+        drawn++;
+    }
+
+    @Override
+    public void shuffled() {
+        runningCount = initialCount;
+        drawn = 0;
+    }
+
+    int getRunningCount() {
+        return runningCount;
+    }
+
+    /**
+     * Gets a running count per deck left in the shoe.
+     */
+    double getTrueCount() {
+        int left = shoeSize - drawn;
+        return left <= 0 ? 0 : (double) runningCount * Card.COUNT / left;
+    }
+
+    /**
+     * Gets a number of cards drawn since the last shuffle.
+     */
+    int getDrawn() {
+        return drawn;
+    }
+}
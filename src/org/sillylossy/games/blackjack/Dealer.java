@@ -1,8 +1,7 @@
 package org.sillylossy.games.blackjack;
 
-import org.sillylossy.games.common.Main;
 import org.sillylossy.games.common.cards.Card;
-import org.sillylossy.games.common.cards.Deck;
+import org.sillylossy.games.common.cards.Shoe;
 import org.sillylossy.games.common.players.Participant;
 
 import java.util.ArrayList;
@@ -13,6 +12,20 @@ import java.util.List;
  */
 class Dealer extends Participant {
 
+    /**
+     * Dealer stands when a hand has at least that many points.
+     */
+    static final int STOP_VALUE = 17;
+
+    Dealer() {
+        super(new BlackjackHand());
+    }
+
+    @Override
+    public BlackjackHand getHand() {
+        return (BlackjackHand) super.getHand();
+    }
+
     /**
      * Peeks an open card of dealer.
      */
@@ -23,16 +36,28 @@ class Dealer extends Participant {
     /**
      * Dealer makes his play here (takes cards until hand value less than STOP_VALUE).
      *
-     * @param deck reference to deck object
+     * @param shoe reference to shoe object
+     * @return cards taken by dealer
      */
-    List<Card> play(Deck deck) {
-        final int STOP_VALUE = 17;
+    List<Card> play(Shoe shoe) {
+        int from = getHand().size();
+        drawCards(shoe);
         List<Card> taken = new ArrayList<>();
-        while (((BlackjackGame) Main.getGame()).getValue(getHand().getCards()) < STOP_VALUE) {
-            Card card = deck.draw();
-            getHand().addCard(card);
-            taken.add(card);
+        for (int i = from; i < getHand().size(); i++) {
+            taken.add(getHand().getCard(i));
         }
         return taken;
     }
+
+    /**
+     * Takes cards until hand value is at least STOP_VALUE, without collecting them.
+     *
+     * @param shoe reference to shoe object
+     */
+    void drawCards(Shoe shoe) {
+        BlackjackHand hand = getHand();
+        while (hand.value() < STOP_VALUE) {
+            hand.addCard(shoe.draw());
+        }
+    }
 }
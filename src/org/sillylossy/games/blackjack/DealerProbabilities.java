@@ -0,0 +1,227 @@
+package org.sillylossy.games.blackjack;
+
+import java.util.Arrays;
+
+/**
+ * Computes exact probabilities of dealer's final totals for a composition of the shoe.
+ * <p>
+ * A composition is a number of cards of every point value (index 0 = ace, 9 = ten-valued cards).
+ * It is encoded in one long as a mixed-radix number (a radix per point value, from the full shoe),
+ * so a card drawn in the recursion is one subtraction. Results of dealer states are memoized
+ * in an open-addressing hash table keyed by the encoded composition and the dealer's hand, so a cached
+ * answer is one lookup and a new upcard mostly reuses states already seen.
+ * <p>
+ * The dealer stands on all 17s, like {@link Dealer}. Not thread-safe; use one instance per thread.
+ */
+final class DealerProbabilities {
+
+    /**
+     * Number of distinct card point values.
+     */
+    static final int POINT_VALUES = 10;
+
+    /**
+     * Index of a total of 17; totals up to 21 follow it.
+     */
+    static final int SEVENTEEN = 0;
+
+    static final int BUST = 5;
+
+    static final int BLACKJACK = 6;
+
+    /**
+     * Number of outcomes: 17 - 21, bust and blackjack.
+     */
+    static final int OUTCOMES = 7;
+
+    /**
+     * Number of dealer states: 2 * hard total + ace flag while drawing, then 1-card hands.
+     */
+    private static final int STATES = 2 * Dealer.STOP_VALUE + POINT_VALUES + 1;
+
+    private static final long EMPTY = -1;
+
+    private static final int INITIAL_CAPACITY = 1 << 12;
+
+    /**
+     * Maximum number of cards of every point value.
+     */
+    private final int[] limits = new int[POINT_VALUES];
+
+    /**
+     * Weights of point values in a composition code.
+     */
+    private final long[] weights = new long[POINT_VALUES];
+
+    /**
+     * Composition during recursion.
+     */
+    private final int[] counts = new int[POINT_VALUES];
+
+    /**
+     * Outcomes of every recursion level.
+     */
+    private final double[][] scratch = new double[BlackjackHand.BLACKJACK + 1][OUTCOMES];
+
+    private long[] keys;
+
+    /**
+     * Outcomes of every key, OUTCOMES values per slot.
+     */
+    private double[] values;
+
+    private int size;
+
+    /**
+     * @param decks number of decks in a full shoe
+     */
+    DealerProbabilities(int decks) {
+        if (decks <= 0) {
+            throw new IllegalArgumentException("Number of decks should be positive.");
+        }
+        long weight = 1;
+        for (int i = 0; i < POINT_VALUES; i++) {
+            limits[i] = fullCount(decks, i);
+            if (weight > Long.MAX_VALUE / STATES / (limits[i] + 1)) {
+                throw new IllegalArgumentException("Too many decks: " + decks);
+            }
+            weights[i] = weight;
+            weight *= limits[i] + 1;
+        }
+        allocate(INITIAL_CAPACITY);
+    }
+
+    /**
+     * Gets a number of cards of a point value in a full shoe.
+     */
+    static int fullCount(int decks, int pointIndex) {
+        return decks * (pointIndex == POINT_VALUES - 1 ? 16 : 4);
+    }
+
+    /**
+     * Gets a point index (0 = ace, 9 = ten-valued cards) of a card by rank index.
+     */
+    static int pointIndex(int rankIndex) {
+        return BlackjackHand.points(rankIndex) - 1;
+    }
+
+    /**
+     * Gets probabilities of dealer's outcomes.
+     *
+     * @param upCard point index of dealer's open card
+     * @param shoe   numbers of unseen cards of every point value, dealer's open card excluded
+     *               (the hole card is drawn from them)
+     * @return probabilities indexed by {@link #SEVENTEEN} + (total - 17), {@link #BUST} and {@link #BLACKJACK}
+     */
+    double[] getProbabilities(int upCard, int[] shoe) {
+        if (upCard < 0 || upCard >= POINT_VALUES) {
+            throw new IllegalArgumentException("Invalid upcard: " + upCard);
+        }
+        long code = 0;
+        int total = 0;
+        for (int i = 0; i < POINT_VALUES; i++) {
+            if (shoe[i] < 0 || shoe[i] > limits[i]) {
+                throw new IllegalArgumentException("Composition doesn't fit the shoe.");
+            }
+            counts[i] = shoe[i];
+            code += shoe[i] * weights[i];
+            total += shoe[i];
+        }
+        double[] out = new double[OUTCOMES];
+        draw(upCard + 1, upCard == 0, true, code, total, 0, out);
+        return out;
+    }
+
+    /**
+     * Gets a number of memoized dealer states.
+     */
+    int size() {
+        return size;
+    }
+
+    void clear() {
+        allocate(INITIAL_CAPACITY);
+    }
+
+    /**
+     * Fills outcomes of a dealer's hand below 17 that is going to draw.
+     *
+     * @param oneCard whether the hand is only the open card
+     */
+    private void draw(int hard, boolean ace, boolean oneCard, long code, int total, int depth, double[] out) {
+        long key = code * STATES + (oneCard ? 2 * Dealer.STOP_VALUE + hard : hard << 1 | (ace ? 1 : 0));
+        int slot = find(key);
+        if (keys[slot] == key) {
+            System.arraycopy(values, slot * OUTCOMES, out, 0, OUTCOMES);
+            return;
+        }
+        if (total == 0) {
+            throw new IllegalArgumentException("Dealer can't finish a hand with this composition.");
+        }
+        Arrays.fill(out, 0);
+        double[] next = scratch[depth];
+        for (int i = 0; i < POINT_VALUES; i++) {
+            if (counts[i] == 0) {
+                continue;
+            }
+            double p = (double) counts[i] / total;
+            int nextHard = hard + i + 1;
+            boolean nextAce = ace || i == 0;
+            int value = nextAce && nextHard + BlackjackHand.SOFT_BONUS <= BlackjackHand.BLACKJACK
+                    ? nextHard + BlackjackHand.SOFT_BONUS : nextHard;
+            if (nextHard > BlackjackHand.BLACKJACK) {
+                out[BUST] += p;
+            } else if (value >= Dealer.STOP_VALUE) {
+                out[oneCard && value == BlackjackHand.BLACKJACK ? BLACKJACK : SEVENTEEN + value - Dealer.STOP_VALUE] += p;
+            } else {
+                counts[i]--;
+                draw(nextHard, nextAce, false, code - weights[i], total - 1, depth + 1, next);
+                counts[i]++;
+                for (int o = 0; o < OUTCOMES; o++) {
+                    out[o] += p * next[o];
+                }
+            }
+        }
+        store(key, out);
+    }
+
+    /**
+     * Finds a slot of a key or an empty slot where it belongs.
+     */
+    private int find(long key) {
+        int mask = keys.length - 1;
+        int slot = (int) ((key * 0x9E3779B97F4A7C15L) >>> 32) & mask;
+        while (keys[slot] != key && keys[slot] != EMPTY) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void store(long key, double[] outcomes) {
+        if (2 * (size + 1) > keys.length) {
+            long[] oldKeys = keys;
+            double[] oldValues = values;
+            allocate(keys.length * 2);
+            for (int slot = 0; slot < oldKeys.length; slot++) {
+                if (oldKeys[slot] != EMPTY) {
+                    put(oldKeys[slot], oldValues, slot * OUTCOMES);
+                }
+            }
+        }
+        put(key, outcomes, 0);
+    }
+
+    private void put(long key, double[] source, int offset) {
+        int slot = find(key);
+        keys[slot] = key;
+        System.arraycopy(source, offset, values, slot * OUTCOMES, OUTCOMES);
+        size++;
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        Arrays.fill(keys, EMPTY);
+        values = new double[capacity * OUTCOMES];
+        size = 0;
+    }
+}
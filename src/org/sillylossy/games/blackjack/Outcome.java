@@ -0,0 +1,76 @@
+package org.sillylossy.games.blackjack;
+
+import org.sillylossy.games.common.game.StatEvent;
+
+/**
+ * Outcome of a blackjack round, checked in order of declaration.
+ * Settling a round doesn't depend on the UI, so the game and the simulator share it.
+ */
+enum Outcome {
+
+    DEALER_BLACKJACK(0, StatEvent.LOST, "You've lost. Dealer has blackjack"),
+    BOTH_BLACKJACK(1, StatEvent.DRAW, "Push. Dealer has blackjack too"),
+    BLACKJACK(3, StatEvent.WON, "You've won: blackjack"),
+    BUST(0, StatEvent.LOST, "You've lost: bust"),
+    DEALER_BUST(2, StatEvent.WON, "You've won: dealer bust"),
+    MORE_POINTS(2, StatEvent.WON, "You've won: you have more points than dealer"),
+    PUSH(1, StatEvent.DRAW, "Push. Your points with dealer are equal."),
+    FEWER_POINTS(0, StatEvent.LOST, "You've lost: dealer has more points");
+
+    /**
+     * Amount returned to a player for a unit bet (including the bet).
+     */
+    private final int payout;
+
+    private final StatEvent statEvent;
+
+    private final String message;
+
+    Outcome(int payout, StatEvent statEvent, String message) {
+        this.payout = payout;
+        this.statEvent = statEvent;
+        this.message = message;
+    }
+
+    /**
+     * Settles a round after the dealer has played.
+     */
+    static Outcome of(BlackjackHand player, BlackjackHand dealer) {
+        boolean playerBlackjack = player.isBlackjack();
+        boolean dealerBlackjack = dealer.isBlackjack();
+        if (dealerBlackjack) {
+            return playerBlackjack ? BOTH_BLACKJACK : DEALER_BLACKJACK;
+        } else if (playerBlackjack) {
+            return BLACKJACK;
+        } else if (player.isBust()) {
+            return BUST;
+        } else if (dealer.isBust()) {
+            return DEALER_BUST;
+        }
+        int playerValue = player.value();
+        int dealerValue = dealer.value();
+        if (playerValue > dealerValue) {
+            return MORE_POINTS;
+        }
+        return playerValue == dealerValue ? PUSH : FEWER_POINTS;
+    }
+
+    int getPayout() {
+        return payout;
+    }
+
+    /**
+     * Gets an amount returned to a player for a stake that was taken from the score (a doubled stake included).
+     */
+    int settle(int stake) {
+        return payout * stake;
+    }
+
+    StatEvent getStatEvent() {
+        return statEvent;
+    }
+
+    String getMessage() {
+        return message;
+    }
+}
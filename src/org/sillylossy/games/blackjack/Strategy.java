@@ -0,0 +1,39 @@
+package org.sillylossy.games.blackjack;
+
+import org.sillylossy.games.common.cards.Card;
+
+/**
+ * Player's strategy in a blackjack simulation. One instance is shared by all simulation threads,
+ * so implementations should be stateless or thread-safe.
+ */
+interface Strategy {
+
+    /**
+     * Hits below 17 and stands on 17 or more, like the dealer.
+     */
+    Strategy MIMIC_DEALER = new Strategy() {
+        @Override
+        public Action decide(BlackjackHand hand, Card upCard) {
+            return hand.value() < Dealer.STOP_VALUE ? Action.HIT : Action.STAND;
+        }
+    };
+
+    /**
+     * Chooses an action for a hand that is neither blackjack nor bust.
+     *
+     * @param hand   player's hand
+     * @param upCard dealer's open card
+     */
+    Action decide(BlackjackHand hand, Card upCard);
+
+    /**
+     * Player's action.
+     */
+    enum Action {
+        HIT, STAND,
+        /**
+         * Doubles the bet, takes one card and ends the hand.
+         */
+        DOUBLE
+    }
+}
@@ -1,5 +1,6 @@
 package org.sillylossy.games.common;
 
+import org.sillylossy.games.common.cards.Deck;
 import org.sillylossy.games.common.game.Game;
 import org.sillylossy.games.common.game.GameController;
 import org.sillylossy.games.common.ui.GameInterface;
@@ -17,6 +18,11 @@ public class Main {
      */
     public static final String FILE_DATA = "data.bin";
 
+    /**
+     * Number of pre-shuffled decks of each kind kept ready.
+     */
+    private static final int DECK_POOL_SIZE = 16;
+
     /**
      * Reference to a game controller assigned to an application.
      */
@@ -68,6 +74,7 @@ public class Main {
      * @param args command line args array
      */
     public static void main(String[] args) {
+        Deck.startPool(DECK_POOL_SIZE);
         EventQueue.invokeLater(new Runnable() {
             @Override
             public void run() {
@@ -2,9 +2,50 @@ package org.sillylossy.games.common.cards;
 
 /**
  * Represents a playing card.
+ * All 52 cards are pre-built in a canonical table and can be compared by identity
+ * when obtained through {@link #of(CardRank, CardSuit)} or {@link #byId(int)}.
  */
 public class Card {
 
+    /**
+     * Number of distinct cards (and card IDs).
+     */
+    public static final int COUNT = 52;
+
+    /**
+     * Number of ranks in every suit.
+     */
+    public static final int RANKS = 13;
+
+    /**
+     * Card ranks in ascending order (from two to ace). Position in this array is a rank index.
+     */
+    private static final CardRank[] RANK_ORDER = new CardRank[]{
+            CardRank.TWO,
+            CardRank.THREE,
+            CardRank.FOUR,
+            CardRank.FIVE,
+            CardRank.SIX,
+            CardRank.SEVEN,
+            CardRank.EIGHT,
+            CardRank.NINE,
+            CardRank.TEN,
+            CardRank.JACK,
+            CardRank.QUEEN,
+            CardRank.KING,
+            CardRank.ACE
+    };
+
+    /**
+     * Maps rank enum ordinal to a rank index.
+     */
+    private static final int[] RANK_INDEX = createRankIndex();
+
+    /**
+     * Canonical card instances indexed by card ID.
+     */
+    private static final Card[] CARDS = createCards();
+
     /**
      * Contains a card rank enum value.
      */
@@ -15,8 +56,19 @@ public class Card {
      */
     private final CardSuit cardSuit;
 
+    /**
+     * Compact card ID: suit ordinal * 13 + rank index.
+     */
+    private final int id;
+
+    /**
+     * Precomputed string representation.
+     */
+    private final String name;
+
     /**
      * Sets a fields values from params.
+     * Prefer {@link #of(CardRank, CardSuit)} which returns a canonical instance.
      *
      * @param cardRank a card's rank
      * @param cardSuit a card's suit
@@ -25,39 +77,84 @@ public class Card {
         super();
         this.cardRank = cardRank;
         this.cardSuit = cardSuit;
+        this.id = idOf(rankIndexOf(cardRank), cardSuit.ordinal());
+        this.name = getRankString(cardRank) + "_of_" + getSuitString(cardSuit);
     }
 
     /**
-     * Gets a card's rank.
+     * Gets a canonical card of specified rank and suit.
      */
-    public final CardRank getCardRank() {
-        return cardRank;
+    public static Card of(CardRank rank, CardSuit suit) {
+        return CARDS[idOf(rankIndexOf(rank), suit.ordinal())];
     }
 
     /**
-     * Returns a hash code based on field values.
+     * Gets a canonical card by its ID.
+     *
+     * @param id card ID (0 - 51)
      */
-    @Override
-    public int hashCode() {
-        final int prime = 31;
-        int result = 1;
-        result = prime * result + ((cardRank == null) ? 0 : cardRank.hashCode());
-        result = prime * result + ((cardSuit == null) ? 0 : cardSuit.hashCode());
-        return result;
+    public static Card byId(int id) {
+        return CARDS[id];
     }
 
     /**
-     * Returns a string representation of a card.
+     * Computes a card ID from rank index (0 = two, 12 = ace) and suit ordinal.
      */
-    @Override
-    public String toString() {
-        return String.format("%s_of_%s", getRankString(), getSuitString());
+    public static int idOf(int rankIndex, int suit) {
+        return suit * RANKS + rankIndex;
+    }
+
+    /**
+     * Gets a rank index (0 = two, 12 = ace) of card ID.
+     */
+    public static int rankOf(int id) {
+        return id % RANKS;
+    }
+
+    /**
+     * Gets a suit ordinal of card ID.
+     */
+    public static int suitOf(int id) {
+        return id / RANKS;
+    }
+
+    /**
+     * Gets a rank index (0 = two, 12 = ace) of rank enum value.
+     */
+    public static int rankIndexOf(CardRank rank) {
+        return RANK_INDEX[rank.ordinal()];
+    }
+
+    /**
+     * Gets a rank enum value by rank index (0 = two, 12 = ace).
+     */
+    public static CardRank rankByIndex(int rankIndex) {
+        return RANK_ORDER[rankIndex];
+    }
+
+    private static int[] createRankIndex() {
+        int[] index = new int[RANK_ORDER.length];
+        for (int i = 0; i < RANK_ORDER.length; i++) {
+            index[RANK_ORDER[i].ordinal()] = i;
+        }
+        return index;
+    }
+
+    private static Card[] createCards() {
+        Card[] cards = new Card[COUNT];
+        for (CardSuit suit : CardSuit.values()) {
+            for (CardRank rank : RANK_ORDER) {
+                Card card = new Card(rank, suit);
+                cards[card.id] = card;
+            }
+        }
+        return cards;
     }
 
     /**
      * Gets a string that represents card rank.
      */
-    private String getRankString() {
+    private static String getRankString(CardRank cardRank) {
         switch (cardRank) {
             case ACE:
                 return "ace";
@@ -93,7 +190,7 @@ public class Card {
     /**
      * Gets a string that represents card suit.
      */
-    private String getSuitString() {
+    private static String getSuitString(CardSuit cardSuit) {
         switch (cardSuit) {
             case CLUBS:
                 return "clubs";
@@ -108,16 +205,52 @@ public class Card {
         }
     }
 
+    /**
+     * Gets a card's rank.
+     */
+    public final CardRank getCardRank() {
+        return cardRank;
+    }
+
     public CardSuit getCardSuit() {
         return cardSuit;
     }
 
+    /**
+     * Gets a compact card ID (0 - 51).
+     */
+    public final int getId() {
+        return id;
+    }
+
+    /**
+     * Gets a rank index (0 = two, 12 = ace).
+     */
+    public final int getRankIndex() {
+        return rankOf(id);
+    }
+
+    /**
+     * Returns a hash code (card ID).
+     */
+    @Override
+    public int hashCode() {
+        return id;
+    }
+
+    /**
+     * Returns a string representation of a card.
+     */
+    @Override
+    public String toString() {
+        return name;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         Card card = (Card) o;
-        return cardRank == card.cardRank &&
-                cardSuit == card.cardSuit;
+        return id == card.id;
     }
 }
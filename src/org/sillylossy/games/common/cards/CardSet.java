@@ -0,0 +1,196 @@
+package org.sillylossy.games.common.cards;
+
+/**
+ * Represents a set of distinct cards encoded as a 64-bit mask over card IDs (bit N is set when card with ID N is present).
+ * Static methods operate on raw masks, so callers can keep sets in local variables without any allocation.
+ * <p>
+ * Allocation-free iteration (card IDs in ascending order):
+ * <pre>
+ * for (long m = mask; m != 0; m = CardSet.withoutFirst(m)) {
+ *     int id = CardSet.first(m);
+ * }
+ * </pre>
+ */
+public final class CardSet {
+
+    /**
+     * Mask that contains every card.
+     */
+    public static final long ALL = (1L << Card.COUNT) - 1;
+
+    /**
+     * Mask of the rank bits of a single suit.
+     */
+    public static final long SUIT_MASK = (1L << Card.RANKS) - 1;
+
+    /**
+     * Card mask.
+     */
+    private long mask;
+
+    /**
+     * Creates an empty set.
+     */
+    public CardSet() {
+        // empty body
+    }
+
+    /**
+     * Creates a set from mask.
+     */
+    public CardSet(long mask) {
+        this.mask = mask;
+    }
+
+    /**
+     * Gets a mask with a single card.
+     */
+    public static long bit(int id) {
+        return 1L << id;
+    }
+
+    /**
+     * Gets a mask with specified card added.
+     */
+    public static long add(long mask, int id) {
+        return mask | (1L << id);
+    }
+
+    /**
+     * Gets a mask with specified card removed.
+     */
+    public static long remove(long mask, int id) {
+        return mask & ~(1L << id);
+    }
+
+    /**
+     * Checks whether a mask contains a card.
+     */
+    public static boolean contains(long mask, int id) {
+        return (mask & (1L << id)) != 0;
+    }
+
+    /**
+     * Gets a number of cards in a mask.
+     */
+    public static int size(long mask) {
+        return Long.bitCount(mask);
+    }
+
+    /**
+     * Gets the lowest card ID in a mask or 64 if the mask is empty.
+     */
+    public static int first(long mask) {
+        return Long.numberOfTrailingZeros(mask);
+    }
+
+    /**
+     * Gets a mask with the lowest card removed.
+     */
+    public static long withoutFirst(long mask) {
+        return mask & (mask - 1);
+    }
+
+    /**
+     * Gets 13-bit rank mask (bit 0 = two, bit 12 = ace) of cards of the specified suit.
+     */
+    public static int suitRanks(long mask, int suit) {
+        return (int) ((mask >>> (suit * Card.RANKS)) & SUIT_MASK);
+    }
+
+    /**
+     * Builds a mask from cards.
+     */
+    public static long maskOf(Card... cards) {
+        long mask = 0;
+        for (Card card : cards) {
+            mask |= 1L << card.getId();
+        }
+        return mask;
+    }
+
+    /**
+     * Adds a card to the set.
+     *
+     * @return true if the card was not in the set
+     */
+    public boolean add(Card card) {
+        long old = mask;
+        mask = add(mask, card.getId());
+        return old != mask;
+    }
+
+    /**
+     * Removes a card from the set.
+     *
+     * @return true if the card was in the set
+     */
+    public boolean remove(Card card) {
+        long old = mask;
+        mask = remove(mask, card.getId());
+        return old != mask;
+    }
+
+    public boolean contains(Card card) {
+        return contains(mask, card.getId());
+    }
+
+    public int size() {
+        return size(mask);
+    }
+
+    public boolean isEmpty() {
+        return mask == 0;
+    }
+
+    public void clear() {
+        mask = 0;
+    }
+
+    /**
+     * Gets a raw card mask.
+     */
+    public long getMask() {
+        return mask;
+    }
+
+    public void setMask(long mask) {
+        this.mask = mask;
+    }
+
+    /**
+     * Copies all the cards from set into a new array (ascending by card ID).
+     */
+    public Card[] toArray() {
+        Card[] cards = new Card[size(mask)];
+        int i = 0;
+        for (long m = mask; m != 0; m = withoutFirst(m)) {
+            cards[i++] = Card.byId(first(m));
+        }
+        return cards;
+    }
+
+    @Override
+    public int hashCode() {
+        return (int) (mask ^ (mask >>> 32));
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        return mask == ((CardSet) o).mask;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("[");
+        for (long m = mask; m != 0; m = withoutFirst(m)) {
+            if (sb.length() > 1) {
+                sb.append(", ");
+            }
+            sb.append(Card.byId(first(m)));
+        }
+        return sb.append(']').toString();
+    }
+}
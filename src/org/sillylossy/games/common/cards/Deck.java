@@ -1,9 +1,8 @@
 package org.sillylossy.games.common.cards;
 
 import java.util.ArrayList;
-import java.util.EmptyStackException;
+import java.util.Collections;
 import java.util.List;
-import java.util.Stack;
 
 /**
  * Represents a deck of cards.
@@ -29,72 +28,199 @@ public class Deck {
 
     private static final List<Card> SHORT_DECK = createDeck(SHORT_RANKS);
 
+    private static final int[] FULL_IDS = toIds(FULL_DECK);
+
+    private static final int[] SHORT_IDS = toIds(SHORT_DECK);
+
+    /**
+     * Shared shuffle source used in fair dealing mode or null if the mode is off.
+     */
+    private static volatile FairShuffleSource fairSource;
+
+    /**
+     * Pool of pre-shuffled decks or null if pooling is off.
+     */
+    private static volatile DeckPool pool;
+
+    /**
+     * IDs of cards that are in the deck. The top card is at the end.
+     */
+    private final int[] cards;
+
     /**
-     * A collections of cards that are in the deck.
+     * Number of cards left in the deck.
      */
-    private Stack<Card> cards = new Stack<>();
+    private int size;
 
     /**
      * Private constructor.
      * Instances are created with factory method.
      */
-    private Deck() {
-        // empty body
+    private Deck(int[] cards) {
+        this.cards = cards;
+        this.size = cards.length;
     }
 
     /**
-     * Creates a new deck. This methods takes a basic deck, copies it to a new collection and then shuffles it.
+     * Creates a new deck. This methods takes a basic deck, copies it to a new array and then shuffles it.
      */
-    private static Deck getShuffled(List<Card> cards) {
-        Deck deck = new Deck();
-        deck.cards = new Stack<>();
-        deck.cards.addAll(cards);
-        java.util.Collections.shuffle(deck.cards);
+    private static Deck getShuffled(int[] cards, ShuffleSource source) {
+        Deck deck = new Deck(cards.clone());
+        source.shuffle(deck.cards, deck.size);
         return deck;
     }
 
     /**
-     * Constructs an initial deck creating a card of every card suit and rank combination.
+     * Constructs an initial deck taking a canonical card of every card suit and rank combination.
      */
     private static List<Card> createDeck(CardRank[] ranks) {
         List<Card> list = new ArrayList<>();
         CardSuit[] suits = CardSuit.values();
         for (CardSuit suit : suits) {
             for (CardRank rank : ranks) {
-                list.add(new Card(rank, suit));
+                list.add(Card.of(rank, suit));
             }
         }
-        return list;
+        return Collections.unmodifiableList(list);
+    }
+
+    private static int[] toIds(List<Card> cards) {
+        int[] ids = new int[cards.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = cards.get(i).getId();
+        }
+        return ids;
+    }
+
+    /**
+     * Turns fair dealing mode on or off. In that mode decks without an explicit source are shuffled
+     * with a shared {@link FairShuffleSource}.
+     */
+    public static synchronized void setFairDealing(boolean enabled) {
+        FairShuffleSource old = fairSource;
+        if (enabled == (old != null)) {
+            return;
+        }
+        if (enabled) {
+            fairSource = new FairShuffleSource();
+        } else {
+            fairSource = null;
+            old.close();
+        }
+        DeckPool p = pool;
+        if (p != null) {
+            p.clear();
+        }
+    }
+
+    /**
+     * Starts pooling: decks without an explicit source are taken from a pool filled by a background thread.
+     *
+     * @param capacity number of decks of each kind kept ready
+     */
+    public static synchronized void startPool(int capacity) {
+        stopPool();
+        pool = new DeckPool(capacity);
+    }
+
+    /**
+     * Stops pooling and its producer thread.
+     */
+    public static synchronized void stopPool() {
+        DeckPool p = pool;
+        if (p != null) {
+            pool = null;
+            p.close();
+        }
+    }
+
+    /**
+     * Gets an active deck pool (for metrics).
+     *
+     * @return deck pool or null if pooling is off
+     */
+    public static DeckPool getPool() {
+        return pool;
+    }
+
+    /**
+     * Gets a source used in fair dealing mode (for audit counters).
+     *
+     * @return fair shuffle source or null if the mode is off
+     */
+    public static FairShuffleSource getFairSource() {
+        return fairSource;
+    }
+
+    /**
+     * Gets a shuffle source used when no source is specified.
+     */
+    public static ShuffleSource getDefaultSource() {
+        FairShuffleSource fair = fairSource;
+        return fair != null ? fair : ShuffleSource.current();
     }
 
+    /**
+     * Gets a shuffled 36-card deck (six to ace) from the pool or using the default shuffle source.
+     */
     public static Deck getShortDeck() {
-        return getShuffled(SHORT_DECK);
+        DeckPool p = pool;
+        Deck deck = p != null ? p.takeShortDeck() : null;
+        return deck != null ? deck : getShortDeck(getDefaultSource());
+    }
+
+    public static Deck getShortDeck(ShuffleSource source) {
+        return getShuffled(SHORT_IDS, source);
     }
 
+    /**
+     * Gets a shuffled 52-card deck from the pool or using the default shuffle source.
+     */
     public static Deck getFullDeck() {
-        return getShuffled(FULL_DECK);
+        DeckPool p = pool;
+        Deck deck = p != null ? p.takeFullDeck() : null;
+        return deck != null ? deck : getFullDeck(getDefaultSource());
+    }
+
+    public static Deck getFullDeck(ShuffleSource source) {
+        return getShuffled(FULL_IDS, source);
     }
 
     /**
      * Gets one card. That card is deleted from a deck.
+     *
+     * @return top card or null if the deck is empty
      */
     public Card draw() {
-        try {
-            return cards.pop();
-        } catch (EmptyStackException e) {
+        if (size == 0) {
             return null;
         }
+        return Card.byId(cards[--size]);
     }
 
     public boolean isEmpty() {
-        return cards.isEmpty();
+        return size == 0;
     }
 
+    /**
+     * Gets the bottom card of a deck.
+     */
     public Card getLast() {
-        return cards.get(0);
+        return Card.byId(cards[0]);
     }
 
     public int cardsLeft() {
-        return cards.size();
+        return size;
+    }
+
+    /**
+     * Copies IDs of cards left in the deck (the top card is the last one).
+     *
+     * @param target array of at least {@link #cardsLeft()} elements
+     * @return number of copied cards
+     */
+    public int copyCards(int[] target) {
+        System.arraycopy(cards, 0, target, 0, size);
+        return size;
     }
-}
\ No newline at end of file
+}
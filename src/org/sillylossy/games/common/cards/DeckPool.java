@@ -0,0 +1,189 @@
+package org.sillylossy.games.common.cards;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Pool of ready-to-use shuffled decks (both full and short) that a background thread keeps filled.
+ * Taking a deck is a lock-free poll, so shuffling is moved off the game thread.
+ * Hits and misses are counted; on a miss the caller shuffles a deck itself.
+ * <p>
+ * Every deck is tagged with the generation of the pool it was shuffled in. {@link #clear()} starts
+ * a new generation, so a deck the producer was shuffling with an old source while the pool was cleared
+ * is dropped when it is taken instead of being dealt.
+ */
+public final class DeckPool {
+
+    /**
+     * How long the producer sleeps when both buffers are full and nobody takes decks.
+     */
+    private static final long IDLE_NANOS = TimeUnit.MILLISECONDS.toNanos(50);
+
+    private final RingBuffer<Pooled> fullDecks;
+
+    private final RingBuffer<Pooled> shortDecks;
+
+    private final AtomicLong hits = new AtomicLong();
+
+    private final AtomicLong misses = new AtomicLong();
+
+    private final AtomicLong dropped = new AtomicLong();
+
+    /**
+     * Current generation. Decks of older generations are not dealt.
+     */
+    private volatile long generation;
+
+    private final Thread producer;
+
+    private volatile boolean running = true;
+
+    /**
+     * Creates a pool and starts its producer thread.
+     *
+     * @param capacity number of decks of each kind kept ready (rounded up to a power of two)
+     */
+    public DeckPool(int capacity) {
+        fullDecks = new RingBuffer<>(capacity);
+        shortDecks = new RingBuffer<>(capacity);
+        producer = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                produce();
+            }
+        }, "DeckPool-producer");
+        producer.setDaemon(true);
+        producer.start();
+    }
+
+    /**
+     * Producer loop: tops up both buffers and parks when they are full.
+     */
+    private void produce() {
+        while (running) {
+            boolean produced = false;
+            if (fullDecks.size() < fullDecks.capacity()) {
+                long gen = generation;
+                produced = fullDecks.offer(new Pooled(gen, Deck.getFullDeck(Deck.getDefaultSource())));
+            }
+            if (shortDecks.size() < shortDecks.capacity()) {
+                long gen = generation;
+                produced |= shortDecks.offer(new Pooled(gen, Deck.getShortDeck(Deck.getDefaultSource())));
+            }
+            if (!produced) {
+                LockSupport.parkNanos(this, IDLE_NANOS);
+            }
+        }
+    }
+
+    /**
+     * Takes a shuffled 52-card deck.
+     *
+     * @return deck or null if the pool is empty
+     */
+    public Deck takeFullDeck() {
+        return take(fullDecks);
+    }
+
+    /**
+     * Takes a shuffled 36-card deck.
+     *
+     * @return deck or null if the pool is empty
+     */
+    public Deck takeShortDeck() {
+        return take(shortDecks);
+    }
+
+    private Deck take(RingBuffer<Pooled> buffer) {
+        Pooled pooled;
+        while ((pooled = buffer.poll()) != null && pooled.generation != generation) {
+            dropped.incrementAndGet();
+        }
+        if (pooled != null) {
+            hits.incrementAndGet();
+        } else {
+            misses.incrementAndGet();
+        }
+        LockSupport.unpark(producer);
+        return pooled != null ? pooled.deck : null;
+    }
+
+    /**
+     * Drops all pooled decks (e.g. when the shuffle source changes).
+     * Decks the producer is shuffling at the moment are dropped when they are taken.
+     */
+    public synchronized void clear() {
+        ++generation;
+        fullDecks.clear();
+        shortDecks.clear();
+        LockSupport.unpark(producer);
+    }
+
+    /**
+     * Stops the producer thread.
+     */
+    public void close() {
+        running = false;
+        LockSupport.unpark(producer);
+    }
+
+    /**
+     * Gets a number of decks taken from the pool.
+     */
+    public long getHits() {
+        return hits.get();
+    }
+
+    /**
+     * Gets a number of times the pool was empty.
+     */
+    public long getMisses() {
+        return misses.get();
+    }
+
+    /**
+     * Gets a number of decks dropped on take because they were shuffled before the last {@link #clear()}.
+     */
+    public long getDropped() {
+        return dropped.get();
+    }
+
+    /**
+     * Gets a part of requests served from the pool.
+     */
+    public double getHitRate() {
+        long h = hits.get();
+        long total = h + misses.get();
+        return total == 0 ? 0 : (double) h / total;
+    }
+
+    /**
+     * Gets a number of ready 52-card decks.
+     */
+    public int getFullDecksReady() {
+        return fullDecks.size();
+    }
+
+    /**
+     * Gets a number of ready 36-card decks.
+     */
+    public int getShortDecksReady() {
+        return shortDecks.size();
+    }
+
+    /**
+     * Deck tagged with the generation it was shuffled in.
+     */
+    private static final class Pooled {
+
+        final long generation;
+
+        final Deck deck;
+
+        Pooled(long generation, Deck deck) {
+            this.generation = generation;
+            this.deck = deck;
+        }
+    }
+}
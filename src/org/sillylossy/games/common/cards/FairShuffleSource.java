@@ -0,0 +1,235 @@
+package org.sillylossy.games.common.cards;
+
+import java.security.SecureRandom;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Audit-grade shuffle source backed by {@link SecureRandom}.
+ * <p>
+ * Entropy is pulled from the CSPRNG in bulk into buffers that a background thread keeps topped up,
+ * so shuffling doesn't pay {@code SecureRandom} latency per draw. Bounded draws take only as many bits
+ * as the bound needs and reject out-of-range values, so there is no modulo bias.
+ * The source counts entropy taken from the buffers in total and by shuffles.
+ * <p>
+ * An instance is thread-safe. Call {@link #close()} to stop the background thread.
+ */
+public final class FairShuffleSource extends ShuffleSource {
+
+    /**
+     * Size of one entropy buffer in bytes.
+     */
+    private static final int BUFFER_SIZE = 4096;
+
+    /**
+     * Number of spare buffers circulating between the consumer and the refill thread.
+     */
+    private static final int SPARE_BUFFERS = 4;
+
+    private final SecureRandom random;
+
+    /**
+     * Buffers filled with entropy and ready to be consumed.
+     */
+    private final BlockingQueue<byte[]> filled = new ArrayBlockingQueue<>(SPARE_BUFFERS);
+
+    /**
+     * Consumed buffers waiting to be refilled.
+     */
+    private final BlockingQueue<byte[]> empty = new ArrayBlockingQueue<>(SPARE_BUFFERS);
+
+    private final Thread refiller;
+
+    /**
+     * Buffer that is being consumed.
+     */
+    private byte[] buffer = new byte[BUFFER_SIZE];
+
+    /**
+     * Position of the next unread byte in the buffer.
+     */
+    private int position;
+
+    /**
+     * Bit reservoir that bounded draws take their bits from.
+     */
+    private long reservoir;
+
+    /**
+     * Number of unused bits in the reservoir.
+     */
+    private int reservoirBits;
+
+    private long shuffles;
+    private long bitsConsumed;
+    private long shuffleBits;
+    private long lastShuffleBits;
+    private long rejections;
+    private long inlineRefills;
+
+    public FairShuffleSource() {
+        this(new SecureRandom());
+    }
+
+    public FairShuffleSource(SecureRandom random) {
+        this.random = random;
+        random.nextBytes(buffer);
+        for (int i = 0; i < SPARE_BUFFERS; i++) {
+            empty.add(new byte[BUFFER_SIZE]);
+        }
+        refiller = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    while (!Thread.currentThread().isInterrupted()) {
+                        byte[] buf = empty.take();
+                        FairShuffleSource.this.random.nextBytes(buf);
+                        filled.put(buf);
+                    }
+                } catch (InterruptedException e) {
+                    // source is closed
+                }
+            }
+        }, "FairShuffleSource-refill");
+        refiller.setDaemon(true);
+        refiller.start();
+    }
+
+    /**
+     * Stops the background refill thread. The source stays usable, refilling its buffer inline.
+     */
+    public void close() {
+        refiller.interrupt();
+    }
+
+    /**
+     * Shuffles cards and records the amount of entropy this shuffle consumed.
+     * The reservoir is emptied before and after the shuffle, so the shuffle and other draws
+     * never share a word and its count covers exactly the words it took.
+     */
+    @Override
+    public synchronized void shuffle(int[] cards, int length) {
+        reservoirBits = 0;
+        long before = bitsConsumed;
+        super.shuffle(cards, length);
+        reservoirBits = 0;
+        lastShuffleBits = bitsConsumed - before;
+        shuffleBits += lastShuffleBits;
+        ++shuffles;
+    }
+
+    /**
+     * Gets an unbiased bounded integer: takes the minimal number of bits covering the bound
+     * and rejects values that are out of range.
+     */
+    @Override
+    public synchronized int nextInt(int bound) {
+        if (bound <= 0) {
+            throw new IllegalArgumentException("Bound should be positive.");
+        }
+        if (bound == 1) {
+            return 0;
+        }
+        int bits = 32 - Integer.numberOfLeadingZeros(bound - 1);
+        while (true) {
+            int value = nextBits(bits);
+            if (value < bound) {
+                return value;
+            }
+            ++rejections;
+        }
+    }
+
+    /**
+     * Takes specified number of bits (1 - 31) from the reservoir.
+     */
+    private int nextBits(int bits) {
+        if (reservoirBits < bits) {
+            reservoir = nextLong();
+            reservoirBits = Long.SIZE;
+        }
+        int value = (int) (reservoir & ((1L << bits) - 1));
+        reservoir >>>= bits;
+        reservoirBits -= bits;
+        return value;
+    }
+
+    /**
+     * Reads 8 bytes of entropy from the buffer and counts them as consumed.
+     */
+    private long nextLong() {
+        if (position + Long.BYTES > BUFFER_SIZE) {
+            nextBuffer();
+        }
+        bitsConsumed += Long.SIZE;
+        long value = 0;
+        for (int i = 0; i < Long.BYTES; i++) {
+            value = (value << 8) | (buffer[position++] & 0xFF);
+        }
+        return value;
+    }
+
+    /**
+     * Swaps an exhausted buffer for a filled one. If the refill thread fell behind, refills inline.
+     */
+    private void nextBuffer() {
+        byte[] next = filled.poll();
+        if (next != null) {
+            empty.offer(buffer);
+            buffer = next;
+        } else {
+            random.nextBytes(buffer);
+            ++inlineRefills;
+        }
+        position = 0;
+    }
+
+    /**
+     * Gets a number of shuffles done with this source.
+     */
+    public synchronized long getShuffles() {
+        return shuffles;
+    }
+
+    /**
+     * Gets a total number of entropy bits taken from the buffers, including bits that were dropped.
+     */
+    public synchronized long getBitsConsumed() {
+        return bitsConsumed;
+    }
+
+    /**
+     * Gets a number of entropy bits consumed by the last shuffle.
+     */
+    public synchronized long getLastShuffleBits() {
+        return lastShuffleBits;
+    }
+
+    /**
+     * Gets a number of entropy bits consumed by all shuffles.
+     */
+    public synchronized long getShuffleBits() {
+        return shuffleBits;
+    }
+
+    /**
+     * Gets an average number of entropy bits consumed per shuffle.
+     */
+    public synchronized double getAverageShuffleBits() {
+        return shuffles == 0 ? 0 : (double) shuffleBits / shuffles;
+    }
+
+    /**
+     * Gets a number of draws rejected to avoid bias.
+     */
+    public synchronized long getRejections() {
+        return rejections;
+    }
+
+    /**
+     * Gets a number of times the buffer had to be refilled on the calling thread.
+     */
+    public synchronized long getInlineRefills() {
+        return inlineRefills;
+    }
+}
@@ -5,6 +5,7 @@ import java.util.List;
 
 /**
  * Represents a hand (cards set of game participant).
+ * Besides an ordered list for UI code, a hand keeps a {@link CardSet} mask of distinct cards in it.
  */
 public class Hand {
 
@@ -14,12 +15,19 @@ public class Hand {
     private final List<Card> cards = new ArrayList<>();
 
     /**
-     * Adds card to a hand.
+     * A set of distinct cards in hand.
+     */
+    private final CardSet set = new CardSet();
+
+    /**
+     * Adds card to a hand. Hand keeps canonical card instances only.
      *
      * @param card card that needs to be added
      */
     public void addCard(Card card) {
-        cards.add(card);
+        Card canonical = Card.byId(card.getId());
+        cards.add(canonical);
+        set.add(canonical);
     }
 
     /**
@@ -27,18 +35,43 @@ public class Hand {
      */
     public void clear() {
         cards.clear();
+        set.clear();
     }
 
     /**
      * Copies all the cards from hand into a new array.
+     * Hot paths should use {@link #getCard(int)} or {@link #getMask()} instead.
      */
     public Card[] getCards() {
         return cards.toArray(new Card[cards.size()]);
     }
 
+    /**
+     * Gets a card at specified position (in order the cards were added).
+     */
+    public Card getCard(int index) {
+        return cards.get(index);
+    }
+
+    /**
+     * Gets a mask of distinct cards in hand.
+     *
+     * @see CardSet
+     */
+    public long getMask() {
+        return set.getMask();
+    }
+
+    /**
+     * Checks whether a hand contains a card.
+     */
+    public boolean contains(Card card) {
+        return set.contains(card);
+    }
+
     public void replaceCard(Card oldCard, Card newCard) {
-        cards.remove(oldCard);
-        cards.add(newCard);
+        removeCard(oldCard);
+        addCard(newCard);
     }
 
     /**
@@ -62,6 +95,8 @@ public class Hand {
     }
 
     public void removeCard(Card card) {
-        cards.remove(card);
+        if (cards.remove(card) && !cards.contains(card)) {
+            set.remove(card);
+        }
     }
 }
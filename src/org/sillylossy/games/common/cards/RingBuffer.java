@@ -0,0 +1,116 @@
+package org.sillylossy.games.common.cards;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Bounded lock-free multi-producer multi-consumer queue.
+ * Every slot has a sequence number that tells whether it is ready to be written or read
+ * for the current lap, so producers and consumers only contend on a single CAS.
+ */
+final class RingBuffer<T> {
+
+    private final AtomicReferenceArray<T> items;
+
+    private final AtomicLongArray sequences;
+
+    private final int mask;
+
+    /**
+     * Position of the next element to read.
+     */
+    private final AtomicLong head = new AtomicLong();
+
+    /**
+     * Position of the next element to write.
+     */
+    private final AtomicLong tail = new AtomicLong();
+
+    /**
+     * Creates a buffer.
+     *
+     * @param capacity buffer capacity, rounded up to a power of two
+     */
+    RingBuffer(int capacity) {
+        int size = Integer.highestOneBit(Math.max(2, capacity) - 1) << 1;
+        items = new AtomicReferenceArray<>(size);
+        sequences = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            sequences.set(i, i);
+        }
+        mask = size - 1;
+    }
+
+    /**
+     * Adds an element.
+     *
+     * @return false if the buffer is full
+     */
+    boolean offer(T item) {
+        long pos = tail.get();
+        while (true) {
+            int index = (int) pos & mask;
+            long diff = sequences.get(index) - pos;
+            if (diff == 0) {
+                if (tail.compareAndSet(pos, pos + 1)) {
+                    items.set(index, item);
+                    sequences.set(index, pos + 1);
+                    return true;
+                }
+                pos = tail.get();
+            } else if (diff < 0) {
+                return false;
+            } else {
+                pos = tail.get();
+            }
+        }
+    }
+
+    /**
+     * Takes an element.
+     *
+     * @return element or null if the buffer is empty
+     */
+    T poll() {
+        long pos = head.get();
+        while (true) {
+            int index = (int) pos & mask;
+            long diff = sequences.get(index) - (pos + 1);
+            if (diff == 0) {
+                if (head.compareAndSet(pos, pos + 1)) {
+                    T item = items.get(index);
+                    items.set(index, null);
+                    sequences.set(index, pos + mask + 1);
+                    return item;
+                }
+                pos = head.get();
+            } else if (diff < 0) {
+                return null;
+            } else {
+                pos = head.get();
+            }
+        }
+    }
+
+    /**
+     * Gets an approximate number of elements.
+     */
+    int size() {
+        long size = tail.get() - head.get();
+        return (int) Math.max(0, Math.min(size, capacity()));
+    }
+
+    int capacity() {
+        return mask + 1;
+    }
+
+    /**
+     * Removes all the elements.
+     */
+    void clear() {
+        while (poll() != null) {
+            // drain
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package org.sillylossy.games.common.cards;
+
+import java.security.SecureRandom;
+
+/**
+ * Shuffle source backed by {@link SecureRandom}.
+ */
+public final class SecureShuffleSource extends ShuffleSource {
+
+    private final SecureRandom random;
+
+    public SecureShuffleSource() {
+        this(new SecureRandom());
+    }
+
+    public SecureShuffleSource(SecureRandom random) {
+        this.random = random;
+    }
+
+    @Override
+    public int nextInt(int bound) {
+        return random.nextInt(bound);
+    }
+}
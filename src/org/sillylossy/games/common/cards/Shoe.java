@@ -0,0 +1,179 @@
+package org.sillylossy.games.common.cards;
+
+import java.util.Arrays;
+
+/**
+ * Represents a dealing shoe of several 52-card decks.
+ * Cards are kept as IDs in a primitive array and drawn with a cursor, so dealing allocates nothing.
+ * A cut card is placed at the penetration position; when it comes out, the shoe should be reshuffled
+ * before the next round (see {@link #shuffleIfNeeded()}). {@link ShoeObserver}s see every card as it is drawn.
+ */
+public class Shoe {
+
+    /**
+     * Minimum number of decks in a shoe.
+     */
+    public static final int MIN_DECKS = 1;
+
+    /**
+     * Maximum number of decks in a shoe.
+     */
+    public static final int MAX_DECKS = 8;
+
+    /**
+     * Card IDs in dealing order.
+     */
+    private final int[] cards;
+
+    /**
+     * Number of decks in a shoe.
+     */
+    private final int decks;
+
+    /**
+     * Position of a cut card (number of cards dealt before it comes out).
+     */
+    private final int cutCard;
+
+    /**
+     * Source used to shuffle the shoe or null to use the default source of the shuffling thread.
+     */
+    private final ShuffleSource source;
+
+    /**
+     * Observers notified of every drawn card and shuffle.
+     */
+    private ShoeObserver[] observers = new ShoeObserver[0];
+
+    /**
+     * Position of the next card to deal.
+     */
+    private int cursor;
+
+    /**
+     * Whether the cut card came out since the last shuffle.
+     */
+    private boolean cutCardReached;
+
+    /**
+     * Creates and shuffles a shoe that uses the default shuffle source of the current thread.
+     *
+     * @param decks       number of decks (1 - 8)
+     * @param penetration part of the shoe dealt before the cut card (0 - 1]
+     */
+    public Shoe(int decks, double penetration) {
+        this(decks, penetration, null);
+    }
+
+    /**
+     * Creates and shuffles a shoe.
+     *
+     * @param decks       number of decks (1 - 8)
+     * @param penetration part of the shoe dealt before the cut card (0 - 1]
+     * @param source      shuffle source or null to use the default source of the shuffling thread
+     */
+    public Shoe(int decks, double penetration, ShuffleSource source) {
+        if (decks < MIN_DECKS || decks > MAX_DECKS) {
+            throw new IllegalArgumentException(String.format("Number of decks should be from %d to %d.", MIN_DECKS, MAX_DECKS));
+        }
+        if (!(penetration > 0 && penetration <= 1)) {
+            throw new IllegalArgumentException("Penetration should be greater than 0 and not greater than 1.");
+        }
+        this.decks = decks;
+        this.source = source;
+        cards = new int[decks * Card.COUNT];
+        for (int i = 0; i < cards.length; i++) {
+            cards[i] = i % Card.COUNT;
+        }
+        cutCard = Math.max(1, (int) Math.round(cards.length * penetration));
+        shuffle();
+    }
+
+    /**
+     * Shuffles all the cards back into the shoe (Fisher-Yates, in place).
+     */
+    public void shuffle() {
+        (source != null ? source : ShuffleSource.current()).shuffle(cards, cards.length);
+        cursor = 0;
+        cutCardReached = false;
+        for (ShoeObserver observer : observers) {
+            observer.shuffled();
+        }
+    }
+
+    /**
+     * Adds an observer of drawn cards and shuffles.
+     */
+    public void addObserver(ShoeObserver observer) {
+        observers = Arrays.copyOf(observers, observers.length + 1);
+        observers[observers.length - 1] = observer;
+    }
+
+    public void removeObserver(ShoeObserver observer) {
+        for (int i = 0; i < observers.length; i++) {
+            if (observers[i] == observer) {
+                ShoeObserver[] rest = new ShoeObserver[observers.length - 1];
+                System.arraycopy(observers, 0, rest, 0, i);
+                System.arraycopy(observers, i + 1, rest, i, rest.length - i);
+                observers = rest;
+                return;
+            }
+        }
+    }
+
+    /**
+     * Shuffles the shoe if the cut card came out. Should be called between rounds.
+     *
+     * @return true if the shoe was shuffled
+     */
+    public boolean shuffleIfNeeded() {
+        if (cutCardReached) {
+            shuffle();
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Gets one card ID. If the shoe runs out in the middle of a round, it is reshuffled.
+     */
+    public int drawId() {
+        if (cursor == cards.length) {
+            shuffle();
+        }
+        int id = cards[cursor];
+        if (++cursor >= cutCard) {
+            cutCardReached = true;
+        }
+        for (ShoeObserver observer : observers) {
+            observer.cardDrawn(id);
+        }
+        return id;
+    }
+
+    /**
+     * Gets one card.
+     */
+    public Card draw() {
+        return Card.byId(drawId());
+    }
+
+    public boolean isCutCardReached() {
+        return cutCardReached;
+    }
+
+    public int cardsLeft() {
+        return cards.length - cursor;
+    }
+
+    public int getDecks() {
+        return decks;
+    }
+
+    /**
+     * Gets total number of cards in a shoe.
+     */
+    public int size() {
+        return cards.length;
+    }
+}
@@ -0,0 +1,20 @@
+package org.sillylossy.games.common.cards;
+
+/**
+ * Receives cards dealt from a {@link Shoe}. Called on the dealing thread for every card,
+ * so implementations should do constant work.
+ */
+public interface ShoeObserver {
+
+    /**
+     * Called when a card is drawn.
+     *
+     * @param id card ID
+     */
+    void cardDrawn(int id);
+
+    /**
+     * Called when all the cards are shuffled back into the shoe.
+     */
+    void shuffled();
+}
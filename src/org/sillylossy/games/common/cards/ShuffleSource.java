@@ -0,0 +1,73 @@
+package org.sillylossy.games.common.cards;
+
+import java.util.SplittableRandom;
+
+/**
+ * Source of randomness used to shuffle decks and shoes.
+ * Implementations only need to supply uniform bounded integers; the shuffle itself is
+ * an in-place Fisher-Yates over a primitive array of card IDs.
+ */
+public abstract class ShuffleSource {
+
+    /**
+     * Root generator that per-thread default sources are split from.
+     */
+    private static final SplittableRandom ROOT = new SplittableRandom();
+
+    /**
+     * Default source of the current thread. Every thread has its own stream, so shuffling doesn't contend.
+     */
+    private static final ThreadLocal<ShuffleSource> CURRENT = new ThreadLocal<ShuffleSource>() {
+        @Override
+        protected ShuffleSource initialValue() {
+            synchronized (ROOT) {
+                return new SplittableShuffleSource(ROOT.split());
+            }
+        }
+    };
+
+    /**
+     * Gets a default source of the current thread.
+     */
+    public static ShuffleSource current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Creates a deterministic source from a seed. The source should be used by one thread;
+     * use {@link SplittableShuffleSource#split()} to get independent streams for other threads.
+     */
+    public static SplittableShuffleSource seeded(long seed) {
+        return new SplittableShuffleSource(seed);
+    }
+
+    /**
+     * Creates a cryptographically strong source.
+     */
+    public static ShuffleSource secure() {
+        return new SecureShuffleSource();
+    }
+
+    /**
+     * Gets a uniformly distributed integer.
+     *
+     * @param bound upper bound (exclusive), must be positive
+     * @return value from 0 (inclusive) to bound (exclusive)
+     */
+    public abstract int nextInt(int bound);
+
+    /**
+     * Shuffles first length elements of an array in place (Fisher-Yates).
+     *
+     * @param cards  card IDs
+     * @param length number of elements to shuffle
+     */
+    public void shuffle(int[] cards, int length) {
+        for (int i = length - 1; i > 0; i--) {
+            int j = nextInt(i + 1);
+            int tmp = cards[i];
+            cards[i] = cards[j];
+            cards[j] = tmp;
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package org.sillylossy.games.common.cards;
+
+import java.util.SplittableRandom;
+
+/**
+ * Fast, seedable shuffle source backed by {@link SplittableRandom}.
+ * An instance is not thread-safe: give each thread its own stream with {@link #split()}.
+ */
+public final class SplittableShuffleSource extends ShuffleSource {
+
+    private final SplittableRandom random;
+
+    /**
+     * Creates a source with deterministic output for the seed.
+     */
+    public SplittableShuffleSource(long seed) {
+        this(new SplittableRandom(seed));
+    }
+
+    SplittableShuffleSource(SplittableRandom random) {
+        this.random = random;
+    }
+
+    /**
+     * Creates a new independent source. Splitting a seeded source gives deterministic streams.
+     */
+    public SplittableShuffleSource split() {
+        return new SplittableShuffleSource(random.split());
+    }
+
+    @Override
+    public int nextInt(int bound) {
+        return random.nextInt(bound);
+    }
+
+    /**
+     * Gets a uniformly distributed long, for example a seed of another source.
+     */
+    public long nextLong() {
+        return random.nextLong();
+    }
+}
@@ -10,7 +10,21 @@ public abstract class Participant {
     /**
      * A participant's hand.
      */
-    private transient Hand hand = new Hand();
+    private transient Hand hand;
+
+    /**
+     * Creates a participant with an empty hand.
+     */
+    protected Participant() {
+        this(new Hand());
+    }
+
+    /**
+     * Creates a participant with a hand of a game-specific type.
+     */
+    protected Participant(Hand hand) {
+        this.hand = hand;
+    }
 
     /**
      * Gets a participant's hand.
@@ -2,7 +2,6 @@ package org.sillylossy.games.common.resources;
 
 import org.sillylossy.games.common.Main;
 import org.sillylossy.games.common.cards.Card;
-import org.sillylossy.games.common.cards.Deck;
 import org.sillylossy.games.common.ui.CardPanel;
 
 import javax.imageio.ImageIO;
@@ -11,7 +10,6 @@ import java.io.BufferedInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.util.Map;
 
 /**
  * Utility that controls image files.
@@ -28,9 +26,9 @@ public class ResourceManager {
      */
     private Image cardBackImage = loadCardBackImage();
     /**
-     * Map of cards and resources.
+     * Card images indexed by card ID.
      */
-    private Map<Card, Image> cardImages = loadCardImages();
+    private Image[] cardImages = loadCardImages();
 
     private ResourceManager() {
 
@@ -81,25 +79,24 @@ public class ResourceManager {
     public Image getCardImage(Card card) {
         if (Main.getUI().getMainPanel().getGamePanel() instanceof CardPanel) {
             CardPanel panel = (CardPanel) Main.getUI().getMainPanel().getGamePanel();
-            Image img = cardImages.get(card);
+            Image img = cardImages[card.getId()];
             return img.getScaledInstance(-1, panel.getImageHeight(), Image.SCALE_SMOOTH);
         }
-        return cardImages.get(card);
+        return cardImages[card.getId()];
     }
 
     /**
-     * Loads all card resources from files and maps them to "Card" objects.
+     * Loads all card resources from files and maps them to card IDs.
      */
-    private Map<Card, Image> loadCardImages() {
+    private Image[] loadCardImages() {
         try {
-            cardImages = new java.util.HashMap<>();
-            for (Card card : Deck.FULL_DECK) {
-                String path = "cards/" + card.toString() + IMAGE_EXT;
+            Image[] images = new Image[Card.COUNT];
+            for (int id = 0; id < Card.COUNT; id++) {
+                String path = "cards/" + Card.byId(id).toString() + IMAGE_EXT;
                 InputStream stream = this.getClass().getResourceAsStream(path);
-                Image img = ImageIO.read(stream);
-                cardImages.put(card, img);
+                images[id] = ImageIO.read(stream);
             }
-            return cardImages;
+            return images;
         } catch (Exception e) {
             e.printStackTrace();
         }
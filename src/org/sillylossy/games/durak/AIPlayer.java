@@ -1,42 +1,64 @@
 package org.sillylossy.games.durak;
 
-import org.sillylossy.games.common.cards.Card;
-import org.sillylossy.games.common.cards.CardSuit;
 import org.sillylossy.games.common.players.Participant;
 
-import java.util.Collections;
-import java.util.Comparator;
-import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
 
 class AIPlayer extends Participant {
 
+    /**
+     * Thread that chooses responses off the event dispatch thread.
+     */
+    private static final ExecutorService THINKER = Executors.newSingleThreadExecutor(new ThreadFactory() {
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread thread = new Thread(r, "durak-ai");
+            thread.setDaemon(true);
+            return thread;
+        }
+    });
+
     private DurakGame durakGame;
 
     AIPlayer(DurakGame game) {
         durakGame = game;
     }
 
-    boolean canBeat(Card card) {
-        return durakGame.filterCards(card).size() != 0;
+    /**
+     * Chooses the opponent's move by the game's policy, on a background thread
+     * so a search doesn't block the UI.
+     *
+     * @return card ID or {@link DurakState#PASS} (the opponent is done attacking or takes)
+     */
+    Future<Integer> getMoveAsync() {
+        final DurakState state = durakGame.snapshot();
+        final DurakPolicy policy = durakGame.getPolicy();
+        return THINKER.submit(new Callable<Integer>() {
+            @Override
+            public Integer call() {
+                return policy.chooseMove(state, DurakGame.OPPONENT);
+            }
+        });
     }
 
-    Card getResponse(Card card) {
-        List<Card> filtered = durakGame.filterCards(card);
-        Collections.sort(filtered, new Comparator<Card>() {
+    /**
+     * Finds a player who is forced to win the current position on the same background thread,
+     * so the solver is never used by two threads and the UI doesn't wait for it.
+     *
+     * @param solver solver used for all positions of the game
+     * @return future of a player index or -1 (see {@link DurakGame#getForcedWinner()})
+     */
+    Future<Integer> getForcedWinnerAsync(final EndgameSolver solver) {
+        final DurakState state = durakGame.snapshot();
+        return THINKER.submit(new Callable<Integer>() {
             @Override
-            public int compare(Card o1, Card o2) {
-                CardSuit trumpSuit = durakGame.getTrumpCard().getCardSuit();
-                int value1 = durakGame.getValue(o1);
-                int value2 = durakGame.getValue(o2);
-                if (o1.getCardSuit() == trumpSuit) {
-                    value1 += 10;
-                }
-                if (o2.getCardSuit() == trumpSuit) {
-                    value2 += 10;
-                }
-                return Integer.compare(value1, value2);
+            public Integer call() {
+                return DurakGame.forcedWinner(solver, state);
             }
         });
-        return filtered.get(0);
     }
 }
@@ -0,0 +1,195 @@
+package org.sillylossy.games.durak;
+
+import org.sillylossy.games.common.cards.Card;
+import org.sillylossy.games.common.cards.CardRank;
+import org.sillylossy.games.common.cards.CardSet;
+import org.sillylossy.games.common.cards.CardSuit;
+import org.sillylossy.games.common.cards.ShuffleSource;
+
+/**
+ * What one player (the observer) knows about the cards of the other player, updated by game events.
+ * <p>
+ * The observer sees its own hand, every card that has been on the table (so discarded cards),
+ * the trump card at the bottom of the deck, and the cards the other player picked up from the table.
+ * The trump card is known to go to whoever draws the last card. Every other card is unseen,
+ * and with no other evidence an unseen card is equally likely to be any of the other player's
+ * hidden cards or any of the deck's cards except the trump card.
+ * <p>
+ * Every event is a few mask operations, so a search can ask for a fresh sample every playout.
+ */
+final class CardTracker {
+
+    /**
+     * Cards of the short deck (six to ace of every suit).
+     */
+    static final long SHORT_DECK = DurakState.sameRanks(
+            CardSet.SUIT_MASK & -CardSet.bit(Card.of(CardRank.SIX, CardSuit.SPADES).getRankIndex()));
+
+    private int trumpCard;
+
+    private boolean trumpInDeck;
+
+    private int deckSize;
+
+    private long own;
+
+    /**
+     * Cards the other player is known to hold.
+     */
+    private long known;
+
+    private int otherSize;
+
+    /**
+     * Cards that are either in the other player's hand or in the deck above the trump card.
+     */
+    private long unseen;
+
+    /**
+     * Starts a new game before the deal.
+     *
+     * @param trumpCard ID of the card at the bottom of the deck
+     * @param deckSize  number of cards in the deck
+     */
+    void reset(int trumpCard, int deckSize) {
+        if (!CardSet.contains(SHORT_DECK, trumpCard) || deckSize <= 0 || deckSize > DurakState.DECK_SIZE) {
+            throw new IllegalArgumentException("Invalid deck.");
+        }
+        this.trumpCard = trumpCard;
+        this.deckSize = deckSize;
+        trumpInDeck = true;
+        own = 0;
+        known = 0;
+        otherSize = 0;
+        unseen = SHORT_DECK & ~CardSet.bit(trumpCard);
+    }
+
+    /**
+     * The observer drew a card from the deck.
+     */
+    void drawn(int card) {
+        deckSize--;
+        own |= CardSet.bit(card);
+        if (card == trumpCard) {
+            trumpInDeck = false;
+        } else {
+            unseen &= ~CardSet.bit(card);
+        }
+    }
+
+    /**
+     * The other player drew a card from the deck.
+     */
+    void otherDrew() {
+        deckSize--;
+        otherSize++;
+        if (deckSize == 0 && trumpInDeck) {
+            trumpInDeck = false;
+            known |= CardSet.bit(trumpCard);
+        }
+    }
+
+    /**
+     * The observer put a card on the table.
+     */
+    void played(int card) {
+        own &= ~CardSet.bit(card);
+    }
+
+    /**
+     * The other player put a card on the table.
+     */
+    void otherPlayed(int card) {
+        long bit = CardSet.bit(card);
+        otherSize--;
+        known &= ~bit;
+        unseen &= ~bit;
+    }
+
+    /**
+     * The observer picked up cards from the table.
+     */
+    void took(long cards) {
+        own |= cards;
+    }
+
+    /**
+     * The other player picked up cards from the table.
+     */
+    void otherTook(long cards) {
+        known |= cards;
+        otherSize += CardSet.size(cards);
+    }
+
+    /**
+     * Gets a mask of cards the other player is known to hold.
+     */
+    long getKnown() {
+        return known;
+    }
+
+    /**
+     * Gets a mask of cards that may be in the other player's hand or in the deck.
+     */
+    long getUnseen() {
+        return unseen;
+    }
+
+    int getOtherSize() {
+        return otherSize;
+    }
+
+    int getDeckSize() {
+        return deckSize;
+    }
+
+    /**
+     * Gets a number of the other player's cards the observer hasn't seen.
+     */
+    int getHiddenCount() {
+        return otherSize - CardSet.size(known);
+    }
+
+    /**
+     * Gets the probability that the other player holds a card.
+     */
+    double getHandProbability(int card) {
+        long bit = CardSet.bit(card);
+        if ((known & bit) != 0) {
+            return 1;
+        }
+        return (unseen & bit) == 0 ? 0 : (double) getHiddenCount() / CardSet.size(unseen);
+    }
+
+    /**
+     * Gets the probability that a card is in the deck.
+     */
+    double getDeckProbability(int card) {
+        if (card == trumpCard) {
+            return trumpInDeck ? 1 : 0;
+        }
+        return (unseen & CardSet.bit(card)) == 0 ? 0 : 1 - (double) getHiddenCount() / CardSet.size(unseen);
+    }
+
+    /**
+     * Deals the other player's hidden cards at random from the unseen cards.
+     *
+     * @return mask of the other player's hand
+     */
+    long sampleHand(ShuffleSource source) {
+        long hand = known;
+        long left = unseen;
+        int size = CardSet.size(left);
+        for (int i = getHiddenCount(); i > 0; i--) {
+            int skip = source.nextInt(size--);
+            long m = left;
+            while (skip-- > 0) {
+                m = CardSet.withoutFirst(m);
+            }
+            long bit = Long.lowestOneBit(m);
+            hand |= bit;
+            left &= ~bit;
+        }
+        return hand;
+    }
+}
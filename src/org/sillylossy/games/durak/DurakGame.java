@@ -3,28 +3,95 @@ package org.sillylossy.games.durak;
 import org.sillylossy.games.common.Main;
 import org.sillylossy.games.common.cards.Card;
 import org.sillylossy.games.common.cards.CardRank;
+import org.sillylossy.games.common.cards.CardSet;
 import org.sillylossy.games.common.cards.CardSuit;
 import org.sillylossy.games.common.cards.Deck;
 import org.sillylossy.games.common.game.CardGame;
 import org.sillylossy.games.common.game.StatEvent;
 import org.sillylossy.games.common.players.Participant;
 
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.List;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.concurrent.Future;
 
 public class DurakGame extends CardGame {
 
     public static final String GAME_NAME = "Durak";
+
+    /**
+     * Index of the human player in a {@link DurakState}.
+     */
+    static final int PLAYER = 0;
+
+    /**
+     * Index of the AI opponent in a {@link DurakState}.
+     */
+    static final int OPPONENT = 1;
+
+    /**
+     * Time budget of a move of the search opponent in milliseconds.
+     */
+    private static final long SEARCH_MILLIS = 1000;
+
+    /**
+     * Node budget of the forced win indicator. It is kept small because the indicator is solved
+     * on the thread that chooses the opponent's moves.
+     */
+    private static final long INDICATOR_MAX_NODES = 200000;
+
     private final AIPlayer opponent = new AIPlayer(this);
-    boolean opponentTakes = false;
+
+    /**
+     * Whether the defender gave up the bout and picks up the table when the attacker is done.
+     */
+    boolean taking = false;
+
+    /**
+     * Whether the opponent attacks in the current bout.
+     */
     boolean opponentsTurn = false;
-    private Map<Card, Card> tableCards = new HashMap<>();
-    private Card trumpCard = new Card(CardRank.ACE, CardSuit.DIAMONDS);
 
-    private Map<Card, Card> getTableCards() {
-        return tableCards;
+    /**
+     * Cards on the table in order they were played: every attack with a card that beats it or null.
+     */
+    private Map<Card, Card> tableCards = new LinkedHashMap<>();
+    private Card trumpCard = Card.of(CardRank.ACE, CardSuit.DIAMONDS);
+
+    /**
+     * Policy the opponent plays by.
+     */
+    private DurakPolicy policy = new EndgamePolicy(new GreedyPolicy());
+
+    private boolean searchOpponent;
+
+    /**
+     * Solver of positions with an empty deck for {@link #getForcedWinner()}. Used on the opponent's thread only.
+     */
+    private EndgameSolver solver;
+
+    /**
+     * Number of moves made in the game, which identifies a position.
+     */
+    private int moves;
+
+    /**
+     * Forced winner being found for the position {@link #forcedWinnerMove} or null.
+     */
+    private Future<Integer> forcedWinner;
+
+    private int forcedWinnerMove;
+
+    /**
+     * What the opponent knows about the player's cards.
+     */
+    private final CardTracker tracker = new CardTracker();
+
+    /**
+     * Gets cards on the table in order they were played: every attack with a card that beats it or null.
+     */
+    Map<Card, Card> getTableCards() {
+        return Collections.unmodifiableMap(tableCards);
     }
 
     Card getTrumpCard() {
@@ -37,75 +104,247 @@ public class DurakGame extends CardGame {
         player.decreaseScore(bet);
         setDeck(Deck.getShortDeck());
         trumpCard = deck.getLast();
+        tracker.reset(trumpCard.getId(), deck.cardsLeft());
+        tableCards.clear();
+        taking = false;
+        opponentsTurn = false;
+        ++moves;
         dealCards();
     }
 
-    void nextTurn() {
-        refillCards();
+    /**
+     * Checks whether the player makes the next move.
+     */
+    boolean isPlayersMove() {
+        return !shouldEnd() && snapshot().toMove() == PLAYER;
     }
 
-    private void refillCards() {
-        refill(opponent);
-        refill(player);
+    /**
+     * Checks whether the opponent makes the next move (see {@link AIPlayer#getMoveAsync()}).
+     */
+    boolean isOpponentsMove() {
+        return !shouldEnd() && snapshot().toMove() == OPPONENT;
     }
 
-    List<Card> filterCards(Card clicked) {
-        List<Card> cards = new ArrayList<>();
-        for (Card card : player.getHand().getCards()) {
-            if (canBeat(card, clicked)) {
-                cards.add(card);
-            }
+    /**
+     * Gets a mask of cards the player can play: attacks and throw-ins when attacking,
+     * cards that beat the last attack when defending.
+     */
+    long getPlayableCards() {
+        DurakState state = snapshot();
+        return !shouldEnd() && state.toMove() == PLAYER ? state.cardMoves() : 0;
+    }
+
+    /**
+     * Plays a card of the player if the rules allow it.
+     *
+     * @return false if the card can't be played now
+     */
+    public boolean handCardClick(Card card) {
+        if (!CardSet.contains(getPlayableCards(), card.getId())) {
+            return false;
+        }
+        move(PLAYER, card.getId());
+        return true;
+    }
+
+    /**
+     * The player who defends takes the table; the opponent may throw in before the bout ends.
+     *
+     * @return false if the player can't take now
+     */
+    boolean takeAction() {
+        if (!opponentsTurn || !isPlayersMove() || tableCards.isEmpty()) {
+            return false;
         }
-        return cards;
-    }
-
-    int getValue(Card card) {
-        switch (card.getCardRank()) {
-            case SIX:
-                return 1;
-            case SEVEN:
-                return 2;
-            case EIGHT:
-                return 3;
-            case NINE:
-                return 4;
-            case TEN:
-                return 5;
-            case JACK:
-                return 6;
-            case QUEEN:
-                return 7;
-            case KING:
-                return 8;
-            case ACE:
-                return 9;
-        }
-        return 0;
-    }
-
-    private boolean canBeat(Card card, Card clicked) {
-        CardSuit trumpSuit = trumpCard.getCardSuit();
-        if (card.getCardSuit() == trumpSuit && clicked.getCardSuit() != trumpSuit) {
-            return true;
-        } else if (clicked.getCardSuit() == trumpSuit && card.getCardSuit() != trumpSuit) {
+        move(PLAYER, DurakState.PASS);
+        return true;
+    }
+
+    /**
+     * The player who attacks is done and the bout ends.
+     *
+     * @return false if the player can't stop now
+     */
+    boolean stopAction() {
+        if (opponentsTurn || !isPlayersMove() || tableCards.isEmpty()) {
             return false;
-        } else if (getValue(card) > getValue(clicked)) {
-            return true;
         }
-        return false;
+        move(PLAYER, DurakState.PASS);
+        return true;
+    }
+
+    /**
+     * Applies a move of the opponent chosen by {@link AIPlayer#getMoveAsync()}.
+     *
+     * @param move card ID or {@link DurakState#PASS}
+     */
+    void opponentMove(int move) {
+        if (!isOpponentsMove()) {
+            throw new IllegalStateException("It's not the opponent's move.");
+        }
+        move(OPPONENT, move);
     }
 
-    public void handCardClick(Card card) {
-        if (opponentTakes && !opponentsTurn) {
-            opponent.getHand().addCard(card);
+    /**
+     * Makes a legal move of the player to move and ends the bout if it is over.
+     */
+    private void move(int who, int move) {
+        ++moves;
+        boolean attacking = (who == OPPONENT) == opponentsTurn;
+        if (move == DurakState.PASS) {
+            if (attacking) {
+                endBout();
+            } else {
+                taking = true;
+            }
         } else {
-            tableCards.put(card, null);
-            if (opponent.canBeat(card)) {
-                tableCards.put(card, opponent.getResponse(card));
+            Card card = Card.byId(move);
+            if (who == PLAYER) {
+                player.getHand().removeCard(card);
+                tracker.otherPlayed(move);
+            } else {
+                opponent.getHand().removeCard(card);
+                tracker.played(move);
+            }
+            if (attacking) {
+                tableCards.put(card, null);
             } else {
-                opponentTakes = true;
+                for (Map.Entry<Card, Card> entry : tableCards.entrySet()) {
+                    if (entry.getValue() == null) {
+                        entry.setValue(card);
+                        break;
+                    }
+                }
             }
         }
+        // an attacker who has nothing to add can only end the bout
+        while (!tableCards.isEmpty()) {
+            DurakState state = snapshot();
+            if (state.toMove() != state.getAttacker() || state.cardMoves() != 0) {
+                break;
+            }
+            endBout();
+        }
+    }
+
+    /**
+     * Ends the bout: beaten cards are discarded and the defender attacks next, or the defender
+     * who gave up picks up the table. Hands are refilled, the attacker first.
+     */
+    private void endBout() {
+        Participant attacker = opponentsTurn ? opponent : player;
+        Participant defender = opponentsTurn ? player : opponent;
+        if (taking) {
+            long taken = 0;
+            for (Map.Entry<Card, Card> entry : tableCards.entrySet()) {
+                defender.getHand().addCard(entry.getKey());
+                taken |= CardSet.bit(entry.getKey().getId());
+                if (entry.getValue() != null) {
+                    defender.getHand().addCard(entry.getValue());
+                    taken |= CardSet.bit(entry.getValue().getId());
+                }
+            }
+            if (defender == opponent) {
+                tracker.took(taken);
+            } else {
+                tracker.otherTook(taken);
+            }
+        }
+        tableCards.clear();
+        refill(attacker);
+        refill(defender);
+        if (!taking) {
+            opponentsTurn = !opponentsTurn;
+        }
+        taking = false;
+    }
+
+    DurakPolicy getPolicy() {
+        return policy;
+    }
+
+    /**
+     * Switches the opponent between the greedy policy and the search, both with the endgame solver.
+     */
+    void setSearchOpponent(boolean search) {
+        if (search == searchOpponent) {
+            return;
+        }
+        DurakPolicy fallback = search ? new MctsPolicy(SEARCH_MILLIS, Runtime.getRuntime().availableProcessors())
+                : new GreedyPolicy();
+        policy.shutdown();
+        policy = new EndgamePolicy(fallback);
+        searchOpponent = search;
+    }
+
+    /**
+     * Gets a number of moves made in the game. A position changes whenever it does.
+     */
+    int getMoves() {
+        return moves;
+    }
+
+    /**
+     * Finds a player who wins whatever the other one does once the deck is out. The position is solved
+     * on the opponent's thread, and the result is kept until the next move.
+     *
+     * @return future of {@link #PLAYER}, {@link #OPPONENT} or -1 if nobody is forced to win or it is unknown,
+     * or null if the deck is not out
+     */
+    Future<Integer> getForcedWinner() {
+        if (deck == null || !deck.isEmpty() || shouldEnd()) {
+            return null;
+        }
+        if (solver == null) {
+            solver = new EndgameSolver(EndgameSolver.DEFAULT_TABLE_BITS, INDICATOR_MAX_NODES);
+        }
+        if (forcedWinner == null || forcedWinnerMove != moves) {
+            forcedWinner = opponent.getForcedWinnerAsync(solver);
+            forcedWinnerMove = moves;
+        }
+        return forcedWinner;
+    }
+
+    /**
+     * Gets a player who wins whatever the other one does.
+     *
+     * @param state position with an empty deck
+     * @return {@link #PLAYER}, {@link #OPPONENT} or -1 if nobody is forced to win or it is unknown
+     */
+    static int forcedWinner(EndgameSolver solver, DurakState state) {
+        int value = solver.solve(state);
+        if (value == EndgameSolver.WIN) {
+            return state.toMove();
+        }
+        if (value == EndgameSolver.LOSS) {
+            return 1 - state.toMove();
+        }
+        return -1;
+    }
+
+    /**
+     * Gets a copy of the position. The player has index {@link #PLAYER} and the opponent {@link #OPPONENT}.
+     */
+    DurakState snapshot() {
+        int[] cards = new int[DurakState.DECK_SIZE];
+        int size = deck.copyCards(cards);
+        DurakState state = DurakState.of(trumpCard, cards, size, opponentsTurn ? OPPONENT : PLAYER);
+        state.setHand(PLAYER, player.getHand().getMask());
+        state.setHand(OPPONENT, opponent.getHand().getMask());
+        state.setKnown(PLAYER, tracker.getKnown() & player.getHand().getMask());
+        for (Map.Entry<Card, Card> entry : tableCards.entrySet()) {
+            if (entry.getValue() != null) {
+                state.addTableCards(entry.getKey(), entry.getValue());
+            }
+        }
+        for (Map.Entry<Card, Card> entry : tableCards.entrySet()) {
+            if (entry.getValue() == null) {
+                state.addTableCards(entry.getKey(), null);
+            }
+        }
+        state.setTaking(taking);
+        return state;
     }
 
     @Override
@@ -125,7 +364,8 @@ public class DurakGame extends CardGame {
 
     @Override
     public boolean shouldEnd() {
-        return deck.isEmpty() && player.getHand().isEmpty() || opponent.getHand().isEmpty();
+        return tableCards.isEmpty() && deck.isEmpty()
+                && (player.getHand().isEmpty() || opponent.getHand().isEmpty());
     }
 
     @Override
@@ -159,6 +399,9 @@ public class DurakGame extends CardGame {
         player.getHand().clear();
         player.setBet(0);
         opponent.getHand().clear();
+        tableCards.clear();
+        taking = false;
+        opponentsTurn = false;
     }
 
     @Override
@@ -169,23 +412,15 @@ public class DurakGame extends CardGame {
 
     private void refill(Participant p) {
         final int START_CARDS = 6;
-        while (p.getHand().size() < START_CARDS) {
-            p.getHand().addCard(deck.draw());
-        }
-    }
-
-    void takeAction() {
-        for (Map.Entry<Card, Card> entry : tableCards.entrySet()) {
-            if (entry.getKey() != null) {
-                player.getHand().addCard(entry.getKey());
-            }
-            if (entry.getValue() != null) {
-                player.getHand().addCard(entry.getValue());
+        while (p.getHand().size() < START_CARDS && !deck.isEmpty()) {
+            Card card = deck.draw();
+            p.getHand().addCard(card);
+            if (p == opponent) {
+                tracker.drawn(card.getId());
+            } else {
+                tracker.otherDrew();
             }
         }
-        tableCards.clear();
-        opponentsTurn = true;
-        nextTurn();
     }
 
     public AIPlayer getOpponent() {
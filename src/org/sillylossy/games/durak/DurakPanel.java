@@ -2,8 +2,6 @@ package org.sillylossy.games.durak;
 
 import org.sillylossy.games.common.Main;
 import org.sillylossy.games.common.cards.Card;
-import org.sillylossy.games.common.cards.CardRank;
-import org.sillylossy.games.common.cards.CardSuit;
 import org.sillylossy.games.common.cards.Deck;
 import org.sillylossy.games.common.resources.CardImage;
 import org.sillylossy.games.common.ui.CardPanel;
@@ -15,8 +13,9 @@ import java.awt.event.MouseEvent;
 import java.awt.event.MouseListener;
 import java.awt.image.BufferedImage;
 import java.util.ArrayList;
+import java.util.Map;
 import java.util.Vector;
-import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.Future;
 
 public final class DurakPanel extends CardPanel {
 
@@ -25,9 +24,16 @@ public final class DurakPanel extends CardPanel {
     private JPanel deck = new DeckPanel();
     private JPanel opponentsCards = new JPanel();
     private JPanel playersCards = new JPanel();
+    private JPanel tableCards = new JPanel();
     private JButton btnTake = new JButton("Take");
     private JButton btnStop = new JButton("Stop");
     private JButton btnContinue = new JButton("Continue");
+    private JCheckBox chkSearch = new JCheckBox("Strong opponent");
+
+    /**
+     * Whether the opponent is choosing a move, so the player can't move.
+     */
+    private boolean waiting;
 
     public DurakPanel() {
         setLayout(new BorderLayout());
@@ -53,7 +59,6 @@ public final class DurakPanel extends CardPanel {
         table.setLayout(gbl);
         table.setBackground(BACKGROUND_COLOR);
         table.add(deck, getGBC(0));
-        JPanel tableCards = new JPanel();
         tableCards.setBackground(BACKGROUND_COLOR);
         table.add(tableCards, getGBC(1));
     }
@@ -63,6 +68,67 @@ public final class DurakPanel extends CardPanel {
         drawDeck();
         drawPlayersCards();
         drawOpponentsCards();
+        drawTableCards();
+        DurakGame game = getGame();
+        boolean playersMove = !waiting && game.isPlayersMove() && !game.getTableCards().isEmpty();
+        btnTake.setEnabled(playersMove && game.opponentsTurn);
+        btnStop.setEnabled(playersMove && !game.opponentsTurn);
+    }
+
+    private void drawTableCards() {
+        tableCards.removeAll();
+        for (Map.Entry<Card, Card> entry : getGame().getTableCards().entrySet()) {
+            tableCards.add(new CardImage(entry.getKey(), false).getLabel());
+            if (entry.getValue() != null) {
+                tableCards.add(new CardImage(entry.getValue(), false).getLabel());
+            }
+        }
+        tableCards.revalidate();
+        tableCards.repaint();
+    }
+
+    /**
+     * Shows the position after a move, then ends the game or lets the opponent move.
+     */
+    private void afterMove() {
+        redraw();
+        updateStatus();
+        DurakGame game = getGame();
+        if (game.shouldEnd()) {
+            processResults();
+        } else if (game.isOpponentsMove()) {
+            askOpponent();
+        }
+    }
+
+    /**
+     * Waits for the opponent's move off the EDT and applies it on the EDT.
+     */
+    private void askOpponent() {
+        final DurakGame game = getGame();
+        final Future<Integer> move = game.getOpponent().getMoveAsync();
+        waiting = true;
+        chkSearch.setEnabled(false);
+        redraw();
+        new SwingWorker<Integer, Void>() {
+            @Override
+            protected Integer doInBackground() throws Exception {
+                return move.get();
+            }
+
+            @Override
+            protected void done() {
+                waiting = false;
+                chkSearch.setEnabled(true);
+                try {
+                    game.opponentMove(get());
+                } catch (Exception ex) {
+                    ex.printStackTrace();
+                    return;
+                }
+                afterMove();
+            }
+        }.execute();
     }
 
     private void drawOpponentsCards() {
@@ -75,7 +141,7 @@ public final class DurakPanel extends CardPanel {
             }
         } else if (onPanel > inHand) {
             for (int i = 0; i < (onPanel - inHand); i++) {
-                opponentsCards.remove(i);
+                opponentsCards.remove(0);
             }
         }
     }
@@ -158,15 +224,48 @@ public final class DurakPanel extends CardPanel {
     public void clear() {
         opponentsCards.removeAll();
         playersCards.removeAll();
+        tableCards.removeAll();
+        playersCardImages.clear();
     }
 
     @Override
     protected void updateStatus() {
+        final DurakGame game = getGame();
+        final String status = "Player: " + game.getPlayer().toString() + " bet: " + game.getPlayer().getBet() + "$";
+        Main.getUI().updateStatus(status);
+        final Future<Integer> winner = game.getForcedWinner();
+        if (winner == null) {
+            return;
+        }
+        final int moves = game.getMoves();
+        new SwingWorker<Integer, Void>() {
+            @Override
+            protected Integer doInBackground() throws Exception {
+                return winner.get();
+            }
 
+            @Override
+            protected void done() {
+                if (game != Main.getGame() || game.getMoves() != moves) {
+                    return;
+                }
+                try {
+                    int forced = get();
+                    if (forced == DurakGame.PLAYER) {
+                        Main.getUI().updateStatus(status + " Win is forced.");
+                    } else if (forced == DurakGame.OPPONENT) {
+                        Main.getUI().updateStatus(status + " Opponent has a forced win.");
+                    }
+                } catch (Exception ex) {
+                    ex.printStackTrace();
+                }
+            }
+        }.execute();
     }
 
     @Override
     protected void initGame() {
+        getGame().setSearchOpponent(chkSearch.isSelected());
         repaint();
 
     }
@@ -178,7 +277,11 @@ public final class DurakPanel extends CardPanel {
 
     @Override
     protected void processResults() {
-
+        String result = getGame().getResult();
+        getGame().reset();
+        clear();
+        Main.getUI().alert(result);
+        flipToBets();
     }
 
     @Override
@@ -186,6 +289,7 @@ public final class DurakPanel extends CardPanel {
         btnTake.setVisible(b);
         btnStop.setVisible(b);
         btnContinue.setVisible(b);
+        chkSearch.setVisible(b);
     }
 
     @Override
@@ -194,7 +298,10 @@ public final class DurakPanel extends CardPanel {
         actionButtons.add(btnTake);
         btnTake.addActionListener(new TakeButtonAction());
         actionButtons.add(btnStop);
+        btnStop.addActionListener(new StopButtonAction());
         actionButtons.add(btnContinue);
+        chkSearch.addActionListener(new SearchCheckBoxAction());
+        actionButtons.add(chkSearch);
         return actionButtons;
     }
 
@@ -213,14 +320,9 @@ public final class DurakPanel extends CardPanel {
 
         @Override
         public void mouseClicked(MouseEvent e) {
-            if (ThreadLocalRandom.current().nextInt() % 2 == 0) {
-                getGame().getOpponent().getHand().addCard(new Card(CardRank.ACE, CardSuit.DIAMONDS));
-                getGame().getPlayer().getHand().addCard(new Card(CardRank.ACE, CardSuit.DIAMONDS));
-            } else {
-                getGame().getOpponent().getHand().removeCard(new Card(CardRank.ACE, CardSuit.DIAMONDS));
-                getGame().getPlayer().getHand().removeCard(new Card(CardRank.ACE, CardSuit.DIAMONDS));
+            if (!waiting && getGame().handCardClick(card)) {
+                afterMove();
             }
-            redraw();
         }
 
         public void mousePressed(MouseEvent e) {
@@ -255,10 +357,31 @@ public final class DurakPanel extends CardPanel {
         }
     }
 
+    /**
+     * "Strong opponent" check box action listener. Switches the opponent to the search.
+     */
+    private final class SearchCheckBoxAction extends AbstractAction {
+        @Override
+        public void actionPerformed(ActionEvent e) {
+            getGame().setSearchOpponent(chkSearch.isSelected());
+        }
+    }
+
     private final class TakeButtonAction extends AbstractAction {
         @Override
         public void actionPerformed(ActionEvent e) {
-            getGame().takeAction();
+            if (!waiting && getGame().takeAction()) {
+                afterMove();
+            }
+        }
+    }
+
+    private final class StopButtonAction extends AbstractAction {
+        @Override
+        public void actionPerformed(ActionEvent e) {
+            if (!waiting && getGame().stopAction()) {
+                afterMove();
+            }
         }
     }
 }
@@ -0,0 +1,36 @@
+package org.sillylossy.games.durak;
+
+/**
+ * Chooses moves of a Durak player.
+ * <p>
+ * A policy gets the complete position but should only use what its player can see:
+ * its own hand, the table, the trump card, the sizes of the deck and of the other hand,
+ * and the cards the other player has picked up.
+ */
+abstract class DurakPolicy {
+
+    /**
+     * Gets a name shown to a player.
+     */
+    abstract String getName();
+
+    /**
+     * Chooses a legal move.
+     *
+     * @param state  position where the player is to move (not modified)
+     * @param player index of the player (0 or 1)
+     * @return card ID or {@link DurakState#PASS}
+     */
+    abstract int chooseMove(DurakState state, int player);
+
+    /**
+     * Releases threads of a policy that is no longer used.
+     */
+    void shutdown() {
+    }
+
+    @Override
+    public String toString() {
+        return getName();
+    }
+}
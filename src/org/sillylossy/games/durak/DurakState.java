@@ -0,0 +1,459 @@
+package org.sillylossy.games.durak;
+
+import org.sillylossy.games.common.cards.Card;
+import org.sillylossy.games.common.cards.CardSet;
+import org.sillylossy.games.common.cards.Deck;
+import org.sillylossy.games.common.cards.ShuffleSource;
+
+/**
+ * Complete position of a two-player Durak game that search can copy and play out.
+ * <p>
+ * The attacker plays a card, the defender beats it or takes, and while every attack is beaten
+ * the attacker may throw in a card of a rank already on the table (at most six attacks in a bout).
+ * A passing attacker ends the bout: beaten cards are discarded and the defender attacks next,
+ * or the defender picks up the table after the attacker has thrown in. Hands are refilled
+ * to six cards, the attacker first. When the deck is out, the player left with cards loses.
+ * <p>
+ * Hands, the table and the discard pile are masks of card IDs, and legal moves are found
+ * with mask arithmetic. The order of the deck never changes, so copies share the deck array
+ * and a copy is a dozen fields.
+ * <p>
+ * A move is a card ID or {@link #PASS} (attacker is done, defender takes).
+ */
+final class DurakState {
+
+    /**
+     * Move of an attacker who is done or a defender who takes.
+     */
+    static final int PASS = Card.COUNT;
+
+    /**
+     * Maximum number of legal moves.
+     */
+    static final int MAX_MOVES = PASS + 1;
+
+    /**
+     * Number of cards a hand is refilled to.
+     */
+    static final int HAND_SIZE = 6;
+
+    /**
+     * Maximum number of attacks in a bout.
+     */
+    static final int MAX_ATTACKS = 6;
+
+    /**
+     * Number of cards in a game.
+     */
+    static final int DECK_SIZE = 36;
+
+    /**
+     * Mask of all cards of a suit by suit index.
+     */
+    private static final long[] SUITS = new long[4];
+
+    static {
+        for (int s = 0; s < SUITS.length; s++) {
+            SUITS[s] = CardSet.SUIT_MASK << s * Card.RANKS;
+        }
+    }
+
+    private final int trumpSuit;
+
+    /**
+     * Card IDs of the deck, the bottom (trump) card first and the top card last. Never modified.
+     */
+    private final int[] deck;
+
+    private int deckSize;
+
+    private final long[] hands = new long[2];
+
+    /**
+     * Cards of every hand that the other player has seen (the cards picked up from the table
+     * and the face-up trump card).
+     */
+    private final long[] known = new long[2];
+
+    private long attacks;
+
+    private long defenses;
+
+    /**
+     * The latest attack; it is the only one that may be unbeaten unless the defender takes.
+     */
+    private int lastAttack;
+
+    private long discard;
+
+    private int attacker;
+
+    /**
+     * Whether the defender has given up the bout.
+     */
+    private boolean taking;
+
+    private DurakState(int trumpSuit, int[] deck, int deckSize) {
+        this.trumpSuit = trumpSuit;
+        this.deck = deck;
+        this.deckSize = deckSize;
+    }
+
+    /**
+     * Deals a new game.
+     *
+     * @param source   source of the shuffle
+     * @param attacker player who attacks first (0 or 1)
+     */
+    static DurakState deal(ShuffleSource source, int attacker) {
+        Deck shuffled = Deck.getShortDeck(source);
+        int[] cards = new int[DECK_SIZE];
+        int size = shuffled.copyCards(cards);
+        DurakState state = new DurakState(Card.suitOf(cards[0]), cards, size);
+        state.attacker = attacker;
+        state.refill(attacker);
+        state.refill(1 - attacker);
+        return state;
+    }
+
+    /**
+     * Creates a position in the middle of a game with empty hands and table.
+     *
+     * @param trump    trump card at the bottom of the deck
+     * @param deck     cards left in the deck, the bottom card first
+     * @param deckSize number of cards left
+     * @param attacker attacking player (0 or 1)
+     */
+    static DurakState of(Card trump, int[] deck, int deckSize, int attacker) {
+        int[] cards = new int[deckSize];
+        System.arraycopy(deck, 0, cards, 0, deckSize);
+        DurakState state = new DurakState(Card.suitOf(trump.getId()), cards, deckSize);
+        state.attacker = attacker;
+        return state;
+    }
+
+    /**
+     * Gets a copy. Copies share only the deck array, which is never modified.
+     */
+    DurakState copy() {
+        DurakState copy = new DurakState(trumpSuit, deck, deckSize);
+        copy.copyFrom(this);
+        return copy;
+    }
+
+    /**
+     * Makes this position equal to another one with the same deck.
+     */
+    void copyFrom(DurakState other) {
+        if (other.deck != deck) {
+            throw new IllegalArgumentException("Positions should share a deck.");
+        }
+        copyState(other);
+    }
+
+    private void copyState(DurakState other) {
+        deckSize = other.deckSize;
+        hands[0] = other.hands[0];
+        hands[1] = other.hands[1];
+        known[0] = other.known[0];
+        known[1] = other.known[1];
+        attacks = other.attacks;
+        defenses = other.defenses;
+        lastAttack = other.lastAttack;
+        discard = other.discard;
+        attacker = other.attacker;
+        taking = other.taking;
+    }
+
+    /**
+     * Gets a copy where the cards an observer can't see (the other hand except its known cards,
+     * and the deck except the trump card) are dealt at random.
+     *
+     * @param observer player whose knowledge is kept
+     * @param source   source of the shuffle
+     */
+    DurakState determinize(int observer, ShuffleSource source) {
+        int other = 1 - observer;
+        long hidden = hands[other] & ~known[other];
+        int[] unseen = new int[DECK_SIZE];
+        int count = 0;
+        for (long m = hidden; m != 0; m = CardSet.withoutFirst(m)) {
+            unseen[count++] = CardSet.first(m);
+        }
+        int hiddenCount = count;
+        for (int i = 1; i < deckSize; i++) {
+            unseen[count++] = deck[i];
+        }
+        source.shuffle(unseen, count);
+        int[] cards = deck.clone();
+        System.arraycopy(unseen, hiddenCount, cards, 1, count - hiddenCount);
+        DurakState copy = withDeck(cards);
+        long hand = known[other];
+        for (int i = 0; i < hiddenCount; i++) {
+            hand |= 1L << unseen[i];
+        }
+        copy.hands[other] = hand;
+        return copy;
+    }
+
+    /**
+     * Gets a copy of this position with another deck array of the same size.
+     */
+    private DurakState withDeck(int[] cards) {
+        DurakState copy = new DurakState(trumpSuit, cards, deckSize);
+        copy.copyState(this);
+        return copy;
+    }
+
+    /**
+     * Gets a mask of cards that beat an attack.
+     */
+    static long beatingCards(int attack, int trumpSuit) {
+        int suit = Card.suitOf(attack);
+        long higher = SUITS[suit] & -(1L << attack + 1);
+        return suit == trumpSuit ? higher : higher | SUITS[trumpSuit];
+    }
+
+    /**
+     * Checks whether a card beats an attack.
+     */
+    static boolean beats(int card, int attack, int trumpSuit) {
+        return (beatingCards(attack, trumpSuit) & 1L << card) != 0;
+    }
+
+    /**
+     * Gets a mask of all cards of the ranks of given cards.
+     */
+    static long sameRanks(long cards) {
+        long ranks = (cards | cards >>> Card.RANKS | cards >>> 2 * Card.RANKS | cards >>> 3 * Card.RANKS) & CardSet.SUIT_MASK;
+        return ranks | ranks << Card.RANKS | ranks << 2 * Card.RANKS | ranks << 3 * Card.RANKS;
+    }
+
+    /**
+     * Gets a mask of all cards of a suit.
+     */
+    static long suitCards(int suit) {
+        return SUITS[suit];
+    }
+
+    /**
+     * Gets a player who makes the next move.
+     */
+    int toMove() {
+        if (taking || CardSet.size(attacks) == CardSet.size(defenses)) {
+            return attacker;
+        }
+        return 1 - attacker;
+    }
+
+    /**
+     * Gets a mask of cards the player to move can play.
+     */
+    long cardMoves() {
+        int defender = 1 - attacker;
+        if (toMove() == defender) {
+            return hands[defender] & beatingCards(lastAttack, trumpSuit);
+        }
+        if (attacks == 0) {
+            return hands[attacker];
+        }
+        int attackCount = CardSet.size(attacks);
+        int unbeaten = attackCount - CardSet.size(defenses);
+        if (attackCount >= MAX_ATTACKS || unbeaten >= CardSet.size(hands[defender])) {
+            return 0;
+        }
+        return hands[attacker] & sameRanks(attacks | defenses);
+    }
+
+    /**
+     * Checks whether the player to move may pass (the attacker is done or the defender takes).
+     */
+    boolean canPass() {
+        return attacks != 0;
+    }
+
+    /**
+     * Fills legal moves of the player to move.
+     *
+     * @param moves array of at least {@link #MAX_MOVES} elements
+     * @return number of moves
+     */
+    int getMoves(int[] moves) {
+        int count = 0;
+        for (long m = cardMoves(); m != 0; m = CardSet.withoutFirst(m)) {
+            moves[count++] = CardSet.first(m);
+        }
+        if (canPass()) {
+            moves[count++] = PASS;
+        }
+        return count;
+    }
+
+    /**
+     * Makes a legal move of the player to move.
+     */
+    void apply(int move) {
+        int player = toMove();
+        if (move == PASS) {
+            if (player == attacker) {
+                endBout();
+            } else {
+                taking = true;
+            }
+            return;
+        }
+        long card = 1L << move;
+        hands[player] &= ~card;
+        known[player] &= ~card;
+        if (player == attacker) {
+            attacks |= card;
+            lastAttack = move;
+        } else {
+            defenses |= card;
+        }
+    }
+
+    private void endBout() {
+        int defender = 1 - attacker;
+        long table = attacks | defenses;
+        if (taking) {
+            hands[defender] |= table;
+            known[defender] |= table;
+        } else {
+            discard |= table;
+        }
+        attacks = 0;
+        defenses = 0;
+        refill(attacker);
+        refill(defender);
+        if (!taking) {
+            attacker = defender;
+        }
+        taking = false;
+    }
+
+    private void refill(int player) {
+        int missing = HAND_SIZE - CardSet.size(hands[player]);
+        while (missing-- > 0 && deckSize > 0) {
+            long card = 1L << deck[--deckSize];
+            hands[player] |= card;
+            if (deckSize == 0) {
+                known[player] |= card;
+            }
+        }
+    }
+
+    /**
+     * Checks whether the game is over (the deck and at least one hand are out between bouts).
+     */
+    boolean isOver() {
+        return attacks == 0 && deckSize == 0 && (hands[0] == 0 || hands[1] == 0);
+    }
+
+    /**
+     * Gets a score of a finished game: 1 for a win, 0.5 for a draw, 0 for a loss.
+     */
+    double getScore(int player) {
+        boolean out = hands[player] == 0;
+        boolean otherOut = hands[1 - player] == 0;
+        if (out == otherOut) {
+            return 0.5;
+        }
+        return out ? 1 : 0;
+    }
+
+    int getTrumpSuit() {
+        return trumpSuit;
+    }
+
+    int getAttacker() {
+        return attacker;
+    }
+
+    boolean isTaking() {
+        return taking;
+    }
+
+    long getHand(int player) {
+        return hands[player];
+    }
+
+    void setHand(int player, long cards) {
+        hands[player] = cards;
+    }
+
+    /**
+     * Gets a mask of cards of a hand that the other player has seen.
+     */
+    long getKnown(int player) {
+        return known[player];
+    }
+
+    void setKnown(int player, long cards) {
+        known[player] = cards;
+    }
+
+    long getAttacks() {
+        return attacks;
+    }
+
+    long getDefenses() {
+        return defenses;
+    }
+
+    /**
+     * Gets the latest attack, the one a defender beats.
+     */
+    int getLastAttack() {
+        return lastAttack;
+    }
+
+    long getDiscard() {
+        return discard;
+    }
+
+    int getDeckSize() {
+        return deckSize;
+    }
+
+    /**
+     * Gets a card of the deck.
+     *
+     * @param index position from the bottom (0 = trump card)
+     */
+    int getDeckCard(int index) {
+        return deck[index];
+    }
+
+    /**
+     * Gets a number of discarded cards.
+     */
+    int getDiscardSize() {
+        return CardSet.size(discard);
+    }
+
+    /**
+     * Gets a number of cards on the table.
+     */
+    int getTableSize() {
+        return CardSet.size(attacks | defenses);
+    }
+
+    /**
+     * Puts a bout in progress on the table. Unbeaten attacks should come last.
+     *
+     * @param attack  attacking card
+     * @param defense card that beats it or null
+     */
+    void addTableCards(Card attack, Card defense) {
+        attacks |= 1L << attack.getId();
+        lastAttack = attack.getId();
+        if (defense != null) {
+            defenses |= 1L << defense.getId();
+        }
+    }
+
+    void setTaking(boolean taking) {
+        this.taking = taking;
+    }
+}
@@ -0,0 +1,307 @@
+package org.sillylossy.games.durak;
+
+import org.sillylossy.games.common.cards.CardSet;
+import org.sillylossy.games.common.cards.SplittableShuffleSource;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Plays Durak policies against each other without the UI, on {@link DurakState} alone.
+ * <p>
+ * Games are played in pairs: both games of a pair have the same deal, and the policies swap seats
+ * in the second one, so neither gets the better cards. Every game gets its own policies created
+ * from seeds split from one seed, so results of a seed don't depend on the number of threads.
+ */
+final class DurakTournament {
+
+    /**
+     * Quantile of the normal distribution for 95% confidence intervals.
+     */
+    private static final double Z = 1.96;
+
+    /**
+     * Creates a policy for one game.
+     */
+    interface PolicyFactory {
+
+        /**
+         * @param seed seed of the policy's random choices
+         */
+        DurakPolicy create(long seed);
+    }
+
+    static final PolicyFactory GREEDY = new PolicyFactory() {
+        @Override
+        public DurakPolicy create(long seed) {
+            return new GreedyPolicy();
+        }
+    };
+
+    private final int threads;
+
+    /**
+     * @param threads number of worker threads
+     */
+    DurakTournament(int threads) {
+        if (threads <= 0) {
+            throw new IllegalArgumentException("Number of threads should be positive.");
+        }
+        this.threads = threads;
+    }
+
+    /**
+     * Plays pairs of games.
+     *
+     * @param first  the policy whose score is reported
+     * @param second its opponent
+     * @param pairs  number of deals, each played twice
+     * @param seed   seed of deals and policies (equal seeds give equal results)
+     */
+    Report run(final PolicyFactory first, final PolicyFactory second, int pairs, long seed)
+            throws InterruptedException {
+        if (pairs <= 0) {
+            throw new IllegalArgumentException("Number of pairs should be positive.");
+        }
+        SplittableShuffleSource root = new SplittableShuffleSource(seed);
+        List<Callable<Report>> tasks = new ArrayList<>();
+        for (int pair = 0; pair < pairs; pair++) {
+            final SplittableShuffleSource source = root.split();
+            tasks.add(new Callable<Report>() {
+                @Override
+                public Report call() {
+                    return playPair(first, second, source);
+                }
+            });
+        }
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        long start = System.nanoTime();
+        try {
+            Report report = new Report();
+            for (Future<Report> future : pool.invokeAll(tasks)) {
+                report.add(future.get());
+            }
+            report.nanos = System.nanoTime() - start;
+            return report;
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Tournament failed.", e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * Plays one deal with the first policy in both seats.
+     */
+    private static Report playPair(PolicyFactory first, PolicyFactory second, SplittableShuffleSource source) {
+        Report report = new Report();
+        long dealSeed = source.nextLong();
+        for (int seat = 0; seat < 2; seat++) {
+            DurakPolicy[] policies = new DurakPolicy[2];
+            policies[seat] = first.create(source.nextLong());
+            policies[1 - seat] = second.create(source.nextLong());
+            try {
+                DurakState state = DurakState.deal(new SplittableShuffleSource(dealSeed), 0);
+                play(state, policies, seat, report);
+                report.record(state.getScore(seat));
+            } finally {
+                policies[0].shutdown();
+                policies[1].shutdown();
+            }
+        }
+        return report;
+    }
+
+    /**
+     * Plays a game to the end, timing every move.
+     *
+     * @param seat seat of the first policy
+     */
+    private static void play(DurakState state, DurakPolicy[] policies, int seat, Report report) {
+        while (!state.isOver()) {
+            int player = state.toMove();
+            long start = System.nanoTime();
+            int move = policies[player].chooseMove(state, player);
+            long nanos = System.nanoTime() - start;
+            boolean legal = move == DurakState.PASS ? state.canPass()
+                    : move >= 0 && move < DurakState.PASS && CardSet.contains(state.cardMoves(), move);
+            if (!legal) {
+                throw new IllegalStateException(policies[player].getName() + " made an illegal move: " + move);
+            }
+            report.latencies[player == seat ? 0 : 1].add(nanos);
+            state.apply(move);
+        }
+    }
+
+    /**
+     * Gets a 95% Wilson score interval of a proportion.
+     *
+     * @return lower and upper bounds
+     */
+    static double[] wilson(double proportion, long trials) {
+        double z2 = Z * Z / trials;
+        double center = (proportion + z2 / 2) / (1 + z2);
+        double half = Z * Math.sqrt(proportion * (1 - proportion) / trials + z2 / (4 * trials)) / (1 + z2);
+        return new double[]{center - half, center + half};
+    }
+
+    /**
+     * Growable list of move times in nanoseconds.
+     */
+    static final class Latencies {
+
+        private long[] values = new long[64];
+        private int size;
+
+        void add(long nanos) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, 2 * size);
+            }
+            values[size++] = nanos;
+        }
+
+        void addAll(Latencies other) {
+            for (int i = 0; i < other.size; i++) {
+                add(other.values[i]);
+            }
+        }
+
+        int size() {
+            return size;
+        }
+
+        /**
+         * Gets a percentile by the nearest rank.
+         *
+         * @param percent 0 - 100
+         */
+        long percentile(double percent) {
+            if (size == 0) {
+                return 0;
+            }
+            long[] sorted = Arrays.copyOf(values, size);
+            Arrays.sort(sorted);
+            int rank = (int) Math.ceil(percent / 100 * size);
+            return sorted[Math.max(0, Math.min(size, rank) - 1)];
+        }
+    }
+
+    /**
+     * Results of a tournament from the side of the first policy.
+     */
+    static final class Report {
+
+        /**
+         * Move times of the first and the second policy.
+         */
+        private final Latencies[] latencies = {new Latencies(), new Latencies()};
+        private long wins;
+        private long draws;
+        private long losses;
+        private long nanos;
+
+        void record(double score) {
+            if (score == 1) {
+                wins++;
+            } else if (score == 0) {
+                losses++;
+            } else {
+                draws++;
+            }
+        }
+
+        void add(Report other) {
+            wins += other.wins;
+            draws += other.draws;
+            losses += other.losses;
+            latencies[0].addAll(other.latencies[0]);
+            latencies[1].addAll(other.latencies[1]);
+        }
+
+        long getGames() {
+            return wins + draws + losses;
+        }
+
+        long getWins() {
+            return wins;
+        }
+
+        long getDraws() {
+            return draws;
+        }
+
+        long getLosses() {
+            return losses;
+        }
+
+        /**
+         * Gets the average score of the first policy (a draw is half a win).
+         */
+        double getScore() {
+            return (wins + draws / 2.0) / getGames();
+        }
+
+        /**
+         * Gets a 95% Wilson interval of {@link #getScore()}, treating every game as one trial.
+         */
+        double[] getScoreInterval() {
+            return wilson(getScore(), getGames());
+        }
+
+        double getGamesPerSecond() {
+            return getGames() / (nanos / 1e9);
+        }
+
+        /**
+         * Gets move times of a policy.
+         *
+         * @param policy 0 for the first policy, 1 for the second
+         */
+        Latencies getLatencies(int policy) {
+            return latencies[policy];
+        }
+
+        @Override
+        public String toString() {
+            double[] interval = getScoreInterval();
+            StringBuilder builder = new StringBuilder();
+            builder.append(String.format("Games: %d (won %d, drawn %d, lost %d)%n", getGames(), wins, draws, losses));
+            builder.append(String.format("Score: %.4f (95%% CI %.4f - %.4f)%n", getScore(), interval[0], interval[1]));
+            builder.append(String.format("Games/s: %.1f%n", getGamesPerSecond()));
+            for (int p = 0; p < latencies.length; p++) {
+                Latencies moves = latencies[p];
+                builder.append(String.format("%s moves: %d, ms p50 %.3f p90 %.3f p99 %.3f max %.3f%n",
+                        p == 0 ? "First" : "Second", moves.size(), moves.percentile(50) / 1e6,
+                        moves.percentile(90) / 1e6, moves.percentile(99) / 1e6, moves.percentile(100) / 1e6));
+            }
+            return builder.toString();
+        }
+    }
+
+    /**
+     * Plays the search with the endgame solver against the greedy policy.
+     *
+     * @param args number of pairs (500 by default) and search iterations per move (1000 by default)
+     */
+    public static void main(String[] args) throws InterruptedException {
+        int pairs = args.length > 0 ? Integer.parseInt(args[0]) : 500;
+        final int iterations = args.length > 1 ? Integer.parseInt(args[1]) : 1000;
+        PolicyFactory search = new PolicyFactory() {
+            @Override
+            public DurakPolicy create(long seed) {
+                return new EndgamePolicy(new MctsPolicy(1000000, iterations, 1, seed),
+                        new EndgameSolver(16, EndgameSolver.DEFAULT_MAX_NODES));
+            }
+        };
+        DurakTournament tournament = new DurakTournament(Runtime.getRuntime().availableProcessors());
+        System.out.print(tournament.run(GREEDY, GREEDY, pairs, 1));
+        System.out.println();
+        System.out.print(tournament.run(search, GREEDY, pairs, 1));
+    }
+}
@@ -0,0 +1,47 @@
+package org.sillylossy.games.durak;
+
+/**
+ * Plays positions with an empty deck by {@link EndgameSolver} and the rest by another policy.
+ * <p>
+ * Once the deck is out, the other hand is every card that isn't in the own hand, on the table or discarded,
+ * so the solver uses nothing the player can't see. A forced loss is left to the other policy,
+ * since a human opponent may still go wrong.
+ */
+final class EndgamePolicy extends DurakPolicy {
+
+    private final DurakPolicy fallback;
+
+    private final EndgameSolver solver;
+
+    EndgamePolicy(DurakPolicy fallback) {
+        this(fallback, new EndgameSolver(EndgameSolver.DEFAULT_TABLE_BITS, EndgameSolver.DEFAULT_MAX_NODES));
+    }
+
+    EndgamePolicy(DurakPolicy fallback, EndgameSolver solver) {
+        this.fallback = fallback;
+        this.solver = solver;
+    }
+
+    @Override
+    String getName() {
+        return fallback.getName() + " + endgame";
+    }
+
+    @Override
+    int chooseMove(DurakState state, int player) {
+        if (state.getDeckSize() == 0) {
+            synchronized (solver) {
+                int value = solver.solve(state);
+                if (value == EndgameSolver.WIN || value == EndgameSolver.DRAW) {
+                    return solver.getBestMove();
+                }
+            }
+        }
+        return fallback.chooseMove(state, player);
+    }
+
+    @Override
+    void shutdown() {
+        fallback.shutdown();
+    }
+}
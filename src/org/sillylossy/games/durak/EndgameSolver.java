@@ -0,0 +1,307 @@
+package org.sillylossy.games.durak;
+
+import org.sillylossy.games.common.cards.Card;
+import org.sillylossy.games.common.cards.CardSet;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Exact solver of Durak positions with an empty deck.
+ * <p>
+ * Without the deck both hands are known, so the game is one of perfect information. The solver runs
+ * alpha-beta over win, draw and loss values. Positions are hashed by Zobrist keys (a random key per card
+ * and place, XORed together) into a fixed-size transposition table that keeps a value, its bound and
+ * the best move. A slot is taken over by a search with more cards left, or when its entry comes from an
+ * older search. The move from the table goes first, then cards from the cheapest to the dearest, then a pass.
+ * <p>
+ * The game always ends: a bout either discards cards or moves the attacker's cards to the defender's hand
+ * while the deck can't refill them. Not thread-safe.
+ */
+final class EndgameSolver {
+
+    static final int LOSS = -1;
+
+    static final int DRAW = 0;
+
+    static final int WIN = 1;
+
+    /**
+     * Result of a search that ran out of nodes.
+     */
+    static final int UNKNOWN = 2;
+
+    /**
+     * Default size of the table (2^18 entries of 16 bytes).
+     */
+    static final int DEFAULT_TABLE_BITS = 18;
+
+    /**
+     * Default number of nodes of a search, enough for a few hundred milliseconds.
+     */
+    static final long DEFAULT_MAX_NODES = 2000000;
+
+    /**
+     * Initial depth of the search stack.
+     */
+    private static final int STACK_SIZE = 64;
+
+    private static final int EXACT = 1;
+    private static final int LOWER = 2;
+    private static final int UPPER = 3;
+
+    /**
+     * Zobrist keys of a card in the first hand, the second hand, attacks and defenses.
+     */
+    private static final long[][] CARD_KEYS = new long[4][Card.COUNT];
+
+    /**
+     * Keys of an unbeaten latest attack.
+     */
+    private static final long[] LAST_ATTACK_KEYS = new long[Card.COUNT];
+
+    /**
+     * Keys of the trump suit, so a solver reused for games with another trump doesn't mix them up.
+     */
+    private static final long[] TRUMP_KEYS = new long[4];
+
+    private static final long SECOND_ATTACKS_KEY;
+
+    private static final long TAKING_KEY;
+
+    static {
+        Random random = new Random(0x5EEDL);
+        for (long[] keys : CARD_KEYS) {
+            for (int i = 0; i < keys.length; i++) {
+                keys[i] = random.nextLong();
+            }
+        }
+        for (int i = 0; i < LAST_ATTACK_KEYS.length; i++) {
+            LAST_ATTACK_KEYS[i] = random.nextLong();
+        }
+        SECOND_ATTACKS_KEY = random.nextLong();
+        TAKING_KEY = random.nextLong();
+        for (int i = 0; i < TRUMP_KEYS.length; i++) {
+            TRUMP_KEYS[i] = random.nextLong();
+        }
+    }
+
+    private final long[] keys;
+
+    /**
+     * Packed entries: value, bound, best move, cards left and search generation. Zero is an empty slot.
+     */
+    private final long[] entries;
+
+    private final long maxNodes;
+
+    private DurakState[] stack;
+
+    private int[][] moves = new int[STACK_SIZE][DurakState.MAX_MOVES];
+
+    private long nodes;
+
+    private boolean aborted;
+
+    private int generation;
+
+    private int bestMove = DurakState.PASS;
+
+    /**
+     * @param tableBits base 2 logarithm of the number of table entries
+     * @param maxNodes  maximum number of positions a search visits
+     */
+    EndgameSolver(int tableBits, long maxNodes) {
+        if (tableBits <= 0 || tableBits > 30) {
+            throw new IllegalArgumentException("Invalid table size: " + tableBits);
+        }
+        if (maxNodes <= 0) {
+            throw new IllegalArgumentException("Number of nodes should be positive.");
+        }
+        keys = new long[1 << tableBits];
+        entries = new long[1 << tableBits];
+        this.maxNodes = maxNodes;
+    }
+
+    /**
+     * Solves a position.
+     *
+     * @param state position with an empty deck (not modified)
+     * @return {@link #WIN}, {@link #DRAW} or {@link #LOSS} for the player to move,
+     * or {@link #UNKNOWN} if the search ran out of nodes
+     */
+    int solve(DurakState state) {
+        if (state.getDeckSize() != 0) {
+            throw new IllegalArgumentException("Deck should be empty.");
+        }
+        stack = new DurakState[STACK_SIZE];
+        for (int i = 0; i < stack.length; i++) {
+            stack[i] = state.copy();
+        }
+        nodes = 0;
+        aborted = false;
+        generation = generation + 1 & 0xFFFF;
+        if (generation == 0) {
+            generation = 1;
+        }
+        int value = search(0, LOSS, WIN);
+        return aborted ? UNKNOWN : value;
+    }
+
+    /**
+     * Gets the best move found by the last search that didn't run out of nodes.
+     */
+    int getBestMove() {
+        return bestMove;
+    }
+
+    /**
+     * Gets a number of positions visited by the last search.
+     */
+    long getNodes() {
+        return nodes;
+    }
+
+    void clear() {
+        Arrays.fill(keys, 0);
+        Arrays.fill(entries, 0);
+    }
+
+    /**
+     * Doubles the stack of positions. Taken cards may be played again, so the depth isn't known in advance.
+     */
+    private void growStack() {
+        int size = stack.length;
+        stack = Arrays.copyOf(stack, 2 * size);
+        moves = Arrays.copyOf(moves, 2 * size);
+        for (int i = size; i < stack.length; i++) {
+            stack[i] = stack[0].copy();
+            moves[i] = new int[DurakState.MAX_MOVES];
+        }
+    }
+
+    /**
+     * Gets a value of a position for the player to move, with a fail-soft alpha-beta window.
+     */
+    private int search(int ply, int alpha, int beta) {
+        DurakState state = stack[ply];
+        int mover = state.toMove();
+        if (state.isOver()) {
+            return (int) Math.round(2 * state.getScore(mover)) - 1;
+        }
+        if (++nodes > maxNodes) {
+            aborted = true;
+            return DRAW;
+        }
+        long key = hash(state);
+        int slot = (int) (key ^ key >>> 32) & keys.length - 1;
+        int tableMove = -1;
+        long entry = entries[slot];
+        if (entry != 0 && keys[slot] == key) {
+            int value = (int) (entry & 3) - 1;
+            int bound = (int) (entry >>> 2 & 3);
+            tableMove = (int) (entry >>> 4 & 63) - 1;
+            if (ply > 0 && (bound == EXACT || bound == LOWER && value >= beta || bound == UPPER && value <= alpha)) {
+                return value;
+            }
+        }
+        if (ply + 1 == stack.length) {
+            growStack();
+        }
+        int[] list = moves[ply];
+        int count = orderMoves(state, tableMove, list);
+        int originalAlpha = alpha;
+        int best = LOSS - 1;
+        int bestIndex = 0;
+        DurakState child = stack[ply + 1];
+        for (int i = 0; i < count; i++) {
+            child.copyFrom(state);
+            child.apply(list[i]);
+            int value = child.toMove() == mover ? search(ply + 1, alpha, beta) : -search(ply + 1, -beta, -alpha);
+            if (aborted) {
+                return DRAW;
+            }
+            if (value > best) {
+                best = value;
+                bestIndex = i;
+            }
+            if (best > alpha) {
+                alpha = best;
+            }
+            if (alpha >= beta) {
+                break;
+            }
+        }
+        if (ply == 0) {
+            bestMove = list[bestIndex];
+        }
+        int bound = best <= originalAlpha ? UPPER : best >= beta ? LOWER : EXACT;
+        store(slot, key, best, bound, list[bestIndex], CardSet.size(state.getHand(0) | state.getHand(1)));
+        return best;
+    }
+
+    private void store(int slot, long key, int value, int bound, int move, int cardsLeft) {
+        long old = entries[slot];
+        if (old != 0 && keys[slot] != key && (int) (old >>> 16) == generation && (old >>> 10 & 63) > cardsLeft) {
+            return;
+        }
+        keys[slot] = key;
+        entries[slot] = value + 1 | bound << 2 | (long) (move + 1) << 4 | (long) cardsLeft << 10 | (long) generation << 16;
+    }
+
+    /**
+     * Fills moves: the table move, cards from the cheapest and a pass.
+     */
+    private static int orderMoves(DurakState state, int first, int[] list) {
+        int trumpSuit = state.getTrumpSuit();
+        int count = 0;
+        for (long m = state.cardMoves(); m != 0; m = CardSet.withoutFirst(m)) {
+            int card = CardSet.first(m);
+            int cost = GreedyPolicy.cost(card, trumpSuit);
+            int i = count++;
+            while (i > 0 && GreedyPolicy.cost(list[i - 1], trumpSuit) > cost) {
+                list[i] = list[i - 1];
+                i--;
+            }
+            list[i] = card;
+        }
+        if (state.canPass()) {
+            list[count++] = DurakState.PASS;
+        }
+        for (int i = 1; i < count; i++) {
+            if (list[i] == first) {
+                System.arraycopy(list, 0, list, 1, i);
+                list[0] = first;
+                break;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Gets a Zobrist key of a position. The discard pile doesn't matter once the deck is out.
+     */
+    static long hash(DurakState state) {
+        long key = TRUMP_KEYS[state.getTrumpSuit()];
+        key = xorCards(key, CARD_KEYS[0], state.getHand(0));
+        key = xorCards(key, CARD_KEYS[1], state.getHand(1));
+        key = xorCards(key, CARD_KEYS[2], state.getAttacks());
+        key = xorCards(key, CARD_KEYS[3], state.getDefenses());
+        if (state.getAttacker() == 1) {
+            key ^= SECOND_ATTACKS_KEY;
+        }
+        if (state.isTaking()) {
+            key ^= TAKING_KEY;
+        } else if (state.toMove() != state.getAttacker()) {
+            key ^= LAST_ATTACK_KEYS[state.getLastAttack()];
+        }
+        return key;
+    }
+
+    private static long xorCards(long key, long[] cardKeys, long cards) {
+        for (long m = cards; m != 0; m = CardSet.withoutFirst(m)) {
+            key ^= cardKeys[CardSet.first(m)];
+        }
+        return key;
+    }
+}
@@ -0,0 +1,65 @@
+package org.sillylossy.games.durak;
+
+import org.sillylossy.games.common.cards.Card;
+import org.sillylossy.games.common.cards.CardSet;
+
+/**
+ * Plays the cheapest card that works: beats with the lowest card (trumps count as 13 ranks higher)
+ * or takes, attacks with the lowest card and throws in the lowest non-trump card of a rank on the table.
+ */
+final class GreedyPolicy extends DurakPolicy {
+
+    /**
+     * Extra cost of a trump card.
+     */
+    private static final int TRUMP_COST = Card.RANKS;
+
+    /**
+     * Gets a cost of playing a card.
+     */
+    static int cost(int card, int trumpSuit) {
+        return Card.rankOf(card) + (Card.suitOf(card) == trumpSuit ? TRUMP_COST : 0);
+    }
+
+    @Override
+    String getName() {
+        return "Greedy";
+    }
+
+    @Override
+    int chooseMove(DurakState state, int player) {
+        return choose(state);
+    }
+
+    /**
+     * Chooses a greedy move of the player to move.
+     */
+    static int choose(DurakState state) {
+        long cards = state.cardMoves();
+        long trumps = cards & DurakState.suitCards(state.getTrumpSuit());
+        if (cards != trumps) {
+            return lowestRank(cards & ~trumps);
+        }
+        boolean throwIn = state.toMove() == state.getAttacker() && state.getTableSize() > 0;
+        if (trumps != 0 && !throwIn) {
+            return CardSet.first(trumps);
+        }
+        return DurakState.PASS;
+    }
+
+    /**
+     * Gets a card of the lowest rank (the lowest suit of equal ranks) among non-empty cards.
+     */
+    private static int lowestRank(long cards) {
+        int best = -1;
+        int bestRank = Card.RANKS;
+        for (int suit = 0; suit < 4; suit++) {
+            int rank = Integer.numberOfTrailingZeros(CardSet.suitRanks(cards, suit));
+            if (rank < bestRank) {
+                bestRank = rank;
+                best = suit * Card.RANKS + rank;
+            }
+        }
+        return best;
+    }
+}
@@ -0,0 +1,258 @@
+package org.sillylossy.games.durak;
+
+import org.sillylossy.games.common.cards.SplittableShuffleSource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Information set Monte Carlo tree search.
+ * <p>
+ * Every worker thread of the pool grows its own tree until the time budget runs out. An iteration deals
+ * the cards the player can't see at random ({@link DurakState#determinize}), walks down the worker's tree
+ * choosing among the moves legal in that deal by UCB with availability counts, adds a node and plays
+ * the game out with a mostly greedy policy. The trees share nothing; their root visit counts are summed
+ * to pick the move.
+ */
+final class MctsPolicy extends DurakPolicy {
+
+    /**
+     * Exploration constant of UCB.
+     */
+    private static final double EXPLORATION = 0.7;
+
+    /**
+     * Chance of a random move in a playout.
+     */
+    private static final double RANDOM_PLAYOUT = 0.1;
+
+    private final long budgetNanos;
+
+    private final int maxIterations;
+
+    private final int threads;
+
+    private final ExecutorService pool;
+
+    private final SplittableShuffleSource seeds;
+
+    /**
+     * Creates a search that runs until the time budget is over.
+     *
+     * @param budgetMillis time budget of a move in milliseconds
+     * @param threads      number of worker threads
+     */
+    MctsPolicy(long budgetMillis, int threads) {
+        this(budgetMillis, Integer.MAX_VALUE, threads, ThreadLocalRandom.current().nextLong());
+    }
+
+    /**
+     * @param budgetMillis  time budget of a move in milliseconds
+     * @param maxIterations maximum number of iterations of a worker per move
+     * @param threads       number of worker threads
+     * @param seed          seed of random deals and playouts
+     */
+    MctsPolicy(long budgetMillis, int maxIterations, int threads, long seed) {
+        if (budgetMillis <= 0 || maxIterations <= 0) {
+            throw new IllegalArgumentException("Time budget and number of iterations should be positive.");
+        }
+        if (threads <= 0) {
+            throw new IllegalArgumentException("Number of threads should be positive.");
+        }
+        this.budgetNanos = budgetMillis * 1000000;
+        this.maxIterations = maxIterations;
+        this.threads = threads;
+        this.seeds = new SplittableShuffleSource(seed);
+        pool = Executors.newFixedThreadPool(threads, new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable r) {
+                Thread thread = new Thread(r, "mcts");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+    }
+
+    @Override
+    String getName() {
+        return "Search";
+    }
+
+    @Override
+    int chooseMove(final DurakState state, final int player) {
+        int[] moves = new int[DurakState.MAX_MOVES];
+        int count = state.getMoves(moves);
+        if (count == 1) {
+            return moves[0];
+        }
+        final long deadline = System.nanoTime() + budgetNanos;
+        List<Callable<int[]>> workers = new ArrayList<>();
+        synchronized (seeds) {
+            for (int t = 0; t < threads; t++) {
+                final SplittableShuffleSource source = seeds.split();
+                workers.add(new Callable<int[]>() {
+                    @Override
+                    public int[] call() {
+                        return new Search(state, player, source).run(deadline, maxIterations);
+                    }
+                });
+            }
+        }
+        int[] visits = new int[DurakState.MAX_MOVES];
+        try {
+            for (Future<int[]> future : pool.invokeAll(workers)) {
+                int[] treeVisits = future.get();
+                for (int m = 0; m < visits.length; m++) {
+                    visits[m] += treeVisits[m];
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Search failed.", e.getCause());
+        }
+        int best = moves[0];
+        for (int i = 1; i < count; i++) {
+            if (visits[moves[i]] > visits[best]) {
+                best = moves[i];
+            }
+        }
+        return best;
+    }
+
+    @Override
+    void shutdown() {
+        pool.shutdownNow();
+    }
+
+    /**
+     * Node of a search tree: a move and statistics of the player who made it.
+     */
+    private static final class Node {
+
+        private final Node parent;
+        private final int move;
+        private final int player;
+        private final List<Node> children = new ArrayList<>();
+        private int visits;
+        private int availability;
+        private double score;
+
+        Node(Node parent, int move, int player) {
+            this.parent = parent;
+            this.move = move;
+            this.player = player;
+        }
+
+        Node child(int move) {
+            for (Node child : children) {
+                if (child.move == move) {
+                    return child;
+                }
+            }
+            return null;
+        }
+    }
+
+    /**
+     * One search tree grown by one worker thread.
+     */
+    private static final class Search {
+
+        private final DurakState root;
+        private final int player;
+        private final SplittableShuffleSource source;
+        private final Node tree = new Node(null, DurakState.PASS, -1);
+        private final int[] moves = new int[DurakState.MAX_MOVES];
+        private final Node[] available = new Node[DurakState.MAX_MOVES];
+
+        Search(DurakState root, int player, SplittableShuffleSource source) {
+            this.root = root;
+            this.player = player;
+            this.source = source;
+        }
+
+        /**
+         * Runs iterations and gets root visit counts by move.
+         */
+        int[] run(long deadline, int maxIterations) {
+            for (int i = 0; i < maxIterations && System.nanoTime() < deadline; i++) {
+                iterate();
+            }
+            int[] visits = new int[DurakState.MAX_MOVES];
+            for (Node child : tree.children) {
+                visits[child.move] = child.visits;
+            }
+            return visits;
+        }
+
+        private void iterate() {
+            DurakState state = root.determinize(player, source);
+            Node node = tree;
+            while (!state.isOver()) {
+                int count = state.getMoves(moves);
+                int untried = 0;
+                for (int i = 0; i < count; i++) {
+                    Node child = node.child(moves[i]);
+                    if (child == null) {
+                        moves[untried++] = moves[i];
+                    } else {
+                        available[i - untried] = child;
+                    }
+                }
+                int mover = state.toMove();
+                if (untried > 0) {
+                    for (int i = 0; i < count - untried; i++) {
+                        available[i].availability++;
+                    }
+                    int move = moves[source.nextInt(untried)];
+                    Node child = new Node(node, move, mover);
+                    child.availability++;
+                    node.children.add(child);
+                    state.apply(move);
+                    node = child;
+                    break;
+                }
+                Node best = null;
+                double bestValue = Double.NEGATIVE_INFINITY;
+                for (int i = 0; i < count; i++) {
+                    Node child = available[i];
+                    child.availability++;
+                    double value = child.score / child.visits
+                            + EXPLORATION * Math.sqrt(Math.log(child.availability) / child.visits);
+                    if (value > bestValue) {
+                        bestValue = value;
+                        best = child;
+                    }
+                }
+                state.apply(best.move);
+                node = best;
+            }
+            playOut(state);
+            for (; node != null; node = node.parent) {
+                node.visits++;
+                if (node.player >= 0) {
+                    node.score += state.getScore(node.player);
+                }
+            }
+        }
+
+        private void playOut(DurakState state) {
+            while (!state.isOver()) {
+                if (source.nextInt(100) < RANDOM_PLAYOUT * 100) {
+                    int count = state.getMoves(moves);
+                    state.apply(moves[source.nextInt(count)]);
+                } else {
+                    state.apply(GreedyPolicy.choose(state));
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,322 @@
+package org.sillylossy.games.holdem;
+
+import org.sillylossy.games.common.cards.CardSet;
+import org.sillylossy.games.common.cards.Hand;
+import org.sillylossy.games.common.cards.SplittableShuffleSource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Computes pot equity of Texas Hold'em hole cards against each other.
+ * <p>
+ * Runouts of the board are either enumerated exactly (at most 1,712,304 of them, for two players
+ * before the flop) or sampled. Work is split into fork/join tasks by the first runout card
+ * (enumeration) or into equal batches of trials (sampling); every task keeps its own counters,
+ * and the inner loops allocate nothing.
+ */
+public final class EquityCalculator {
+
+    /**
+     * Number of hole cards of a player.
+     */
+    public static final int HOLE_CARDS = 2;
+
+    /**
+     * Number of community cards.
+     */
+    public static final int BOARD_CARDS = 5;
+
+    /**
+     * Number of sampled runouts per task.
+     */
+    private static final int SAMPLE_BATCH = 16384;
+
+    /**
+     * Private constructor of utility class.
+     */
+    private EquityCalculator() {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Enumerates all runouts of the board.
+     *
+     * @param holes hole cards of every player
+     * @param board community cards dealt so far (0 - 5)
+     */
+    public static Result enumerate(Hand[] holes, Hand board) {
+        return enumerate(toMasks(holes), board.getMask());
+    }
+
+    /**
+     * Enumerates all runouts of the board.
+     *
+     * @param holes masks of hole cards of every player
+     * @param board mask of community cards dealt so far (0 - 5)
+     */
+    public static Result enumerate(long[] holes, long board) {
+        int[] deck = remainingDeck(holes, board);
+        int draws = BOARD_CARDS - Long.bitCount(board);
+        List<RunoutTask> tasks = new ArrayList<>();
+        if (draws == 0) {
+            tasks.add(new EnumerationTask(holes, board, deck, 0, 0, 1));
+        } else {
+            for (int first = 0; first <= deck.length - draws; first++) {
+                tasks.add(new EnumerationTask(holes, board, deck, draws, first, first + 1));
+            }
+        }
+        return run(holes.length, tasks);
+    }
+
+    /**
+     * Samples random runouts of the board.
+     *
+     * @param holes  masks of hole cards of every player
+     * @param board  mask of community cards dealt so far (0 - 5)
+     * @param trials number of runouts
+     * @param seed   seed of random runouts (equal seeds give equal results)
+     */
+    public static Result sample(long[] holes, long board, int trials, long seed) {
+        if (trials <= 0) {
+            throw new IllegalArgumentException("Number of trials should be positive.");
+        }
+        int[] deck = remainingDeck(holes, board);
+        int draws = BOARD_CARDS - Long.bitCount(board);
+        SplittableShuffleSource root = new SplittableShuffleSource(seed);
+        List<RunoutTask> tasks = new ArrayList<>();
+        for (int from = 0; from < trials; from += SAMPLE_BATCH) {
+            tasks.add(new SamplingTask(holes, board, deck, draws, Math.min(SAMPLE_BATCH, trials - from), root.split()));
+        }
+        return run(holes.length, tasks);
+    }
+
+    private static Result run(int players, final List<RunoutTask> tasks) {
+        ForkJoinPool.commonPool().invoke(new RecursiveAction() {
+            @Override
+            protected void compute() {
+                ForkJoinTask.invokeAll(tasks);
+            }
+        });
+        Result result = new Result(players);
+        for (RunoutTask task : tasks) {
+            result.add(task);
+        }
+        return result;
+    }
+
+    private static long[] toMasks(Hand[] hands) {
+        long[] masks = new long[hands.length];
+        for (int i = 0; i < hands.length; i++) {
+            masks[i] = hands[i].getMask();
+        }
+        return masks;
+    }
+
+    /**
+     * Validates the cards and gets IDs of cards that can appear on the board.
+     */
+    private static int[] remainingDeck(long[] holes, long board) {
+        if (holes.length < 2) {
+            throw new IllegalArgumentException("At least two players are needed.");
+        }
+        if (Long.bitCount(board) > BOARD_CARDS) {
+            throw new IllegalArgumentException("Board can't have more than " + BOARD_CARDS + " cards.");
+        }
+        long used = board;
+        for (long hole : holes) {
+            if (Long.bitCount(hole) != HOLE_CARDS || (used & hole) != 0) {
+                throw new IllegalArgumentException("Every player should have two cards that nobody else has.");
+            }
+            used |= hole;
+        }
+        long left = CardSet.ALL & ~used;
+        int[] deck = new int[Long.bitCount(left)];
+        for (int i = 0; left != 0; left &= left - 1) {
+            deck[i++] = Long.numberOfTrailingZeros(left);
+        }
+        return deck;
+    }
+
+    /**
+     * Outcome of a set of runouts.
+     */
+    public static final class Result {
+
+        private final long[] wins;
+        private final long[] ties;
+        private final double[] shares;
+        private long runouts;
+
+        Result(int players) {
+            wins = new long[players];
+            ties = new long[players];
+            shares = new double[players];
+        }
+
+        void add(RunoutTask task) {
+            for (int i = 0; i < wins.length; i++) {
+                wins[i] += task.wins[i];
+                ties[i] += task.ties[i];
+                shares[i] += task.shares[i];
+            }
+            runouts += task.runouts;
+        }
+
+        /**
+         * Gets a share of the pot a player wins on average (0 - 1).
+         */
+        public double getEquity(int player) {
+            return shares[player] / runouts;
+        }
+
+        /**
+         * Gets a number of runouts a player wins alone.
+         */
+        public long getWins(int player) {
+            return wins[player];
+        }
+
+        /**
+         * Gets a number of runouts a player splits the pot.
+         */
+        public long getTies(int player) {
+            return ties[player];
+        }
+
+        public long getRunouts() {
+            return runouts;
+        }
+    }
+
+    /**
+     * Evaluates runouts and counts wins, ties and pot shares of every player.
+     */
+    private abstract static class RunoutTask extends RecursiveAction {
+
+        final long[] holes;
+        final long board;
+        final int[] deck;
+        final int draws;
+        final long[] wins;
+        final long[] ties;
+        final double[] shares;
+        long runouts;
+
+        /**
+         * Values of hands of the current runout.
+         */
+        private final int[] values;
+
+        RunoutTask(long[] holes, long board, int[] deck, int draws) {
+            this.holes = holes;
+            this.board = board;
+            this.deck = deck;
+            this.draws = draws;
+            wins = new long[holes.length];
+            ties = new long[holes.length];
+            shares = new double[holes.length];
+            values = new int[holes.length];
+        }
+
+        /**
+         * Settles one complete board.
+         */
+        final void settle(long fullBoard) {
+            int best = -1;
+            int winners = 0;
+            for (int i = 0; i < holes.length; i++) {
+                int value = SevenCardEvaluator.evaluate(holes[i] | fullBoard);
+                values[i] = value;
+                if (value > best) {
+                    best = value;
+                    winners = 1;
+                } else if (value == best) {
+                    ++winners;
+                }
+            }
+            double share = 1.0 / winners;
+            for (int i = 0; i < holes.length; i++) {
+                if (values[i] == best) {
+                    if (winners == 1) {
+                        ++wins[i];
+                    } else {
+                        ++ties[i];
+                    }
+                    shares[i] += share;
+                }
+            }
+            ++runouts;
+        }
+    }
+
+    /**
+     * Enumerates runouts whose first card is in the given range of the remaining deck.
+     */
+    private static final class EnumerationTask extends RunoutTask {
+
+        private final int from;
+        private final int to;
+
+        EnumerationTask(long[] holes, long board, int[] deck, int draws, int from, int to) {
+            super(holes, board, deck, draws);
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (draws == 0) {
+                settle(board);
+                return;
+            }
+            for (int i = from; i < to; i++) {
+                deal(board | 1L << deck[i], draws - 1, i + 1);
+            }
+        }
+
+        private void deal(long mask, int left, int start) {
+            if (left == 0) {
+                settle(mask);
+                return;
+            }
+            for (int i = start; i <= deck.length - left; i++) {
+                deal(mask | 1L << deck[i], left - 1, i + 1);
+            }
+        }
+    }
+
+    /**
+     * Samples runouts with a partial shuffle of its own copy of the remaining deck.
+     */
+    private static final class SamplingTask extends RunoutTask {
+
+        private final int trials;
+        private final SplittableShuffleSource source;
+
+        SamplingTask(long[] holes, long board, int[] deck, int draws, int trials, SplittableShuffleSource source) {
+            super(holes, board, deck, draws);
+            this.trials = trials;
+            this.source = source;
+        }
+
+        @Override
+        protected void compute() {
+            int[] cards = deck.clone();
+            for (int t = 0; t < trials; t++) {
+                long mask = board;
+                for (int n = 0; n < draws; n++) {
+                    int j = n + source.nextInt(cards.length - n);
+                    int id = cards[j];
+                    cards[j] = cards[n];
+                    cards[n] = id;
+                    mask |= 1L << id;
+                }
+                settle(mask);
+            }
+        }
+    }
+}
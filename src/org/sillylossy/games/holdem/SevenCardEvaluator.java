@@ -0,0 +1,170 @@
+package org.sillylossy.games.holdem;
+
+import org.sillylossy.games.common.cards.Card;
+import org.sillylossy.games.common.cards.CardSet;
+
+/**
+ * Gets a value of the best five-card poker hand among five to seven cards.
+ * <p>
+ * Cards are taken as a mask of card IDs, so the four suit rank masks are plain shifts.
+ * Ranks held at least two, three and four times are found with bitwise logic over the suit masks,
+ * and straights and top ranks are read from 8192-entry tables indexed by a rank mask.
+ * An evaluation doesn't loop over cards and allocates nothing.
+ * <p>
+ * A value is a category (bits 20 and up) followed by 4-bit rank indexes (0 = two, 12 = ace)
+ * ordered by importance, so a greater value is a better hand and equal values split the pot.
+ */
+public final class SevenCardEvaluator {
+
+    public static final int HIGH_CARD = 0;
+    public static final int ONE_PAIR = 1;
+    public static final int TWO_PAIR = 2;
+    public static final int THREE_OF_KIND = 3;
+    public static final int STRAIGHT = 4;
+    public static final int FLUSH = 5;
+    public static final int FULL_HOUSE = 6;
+    public static final int FOUR_OF_KIND = 7;
+    public static final int STRAIGHT_FLUSH = 8;
+
+    private static final String[] CATEGORY_NAMES = {
+            "High card", "One pair", "Two pair", "Three of kind", "Straight",
+            "Flush", "Full house", "Four of kind", "Straight flush"
+    };
+
+    private static final int CATEGORY_SHIFT = 20;
+
+    private static final int RANK_MASKS = 1 << Card.RANKS;
+
+    /**
+     * Top rank index of the best straight in a rank mask or -1 if there is none.
+     */
+    private static final byte[] STRAIGHT_TOP = new byte[RANK_MASKS];
+
+    /**
+     * Up to five top rank indexes of a rank mask, the highest one in bits 16 - 19.
+     */
+    private static final int[] TOP_RANKS = new int[RANK_MASKS];
+
+    /**
+     * Rank mask of a wheel (ace to five) straight.
+     */
+    private static final int WHEEL = 0x100F;
+
+    static {
+        for (int mask = 0; mask < RANK_MASKS; mask++) {
+            int top = -1;
+            for (int high = Card.RANKS - 1; high >= 4 && top < 0; high--) {
+                if ((mask >>> (high - 4) & 0x1F) == 0x1F) {
+                    top = high;
+                }
+            }
+            if (top < 0 && (mask & WHEEL) == WHEEL) {
+                top = 3;
+            }
+            STRAIGHT_TOP[mask] = (byte) top;
+            int ranks = 0;
+            int rest = mask;
+            for (int shift = 16; shift >= 0 && rest != 0; shift -= 4) {
+                int high = 31 - Integer.numberOfLeadingZeros(rest);
+                ranks |= high << shift;
+                rest &= ~(1 << high);
+            }
+            TOP_RANKS[mask] = ranks;
+        }
+    }
+
+    /**
+     * Private constructor of utility class.
+     */
+    private SevenCardEvaluator() {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Gets a value of the best hand.
+     *
+     * @param mask mask of five to seven cards
+     */
+    public static int evaluate(long mask) {
+        int s0 = CardSet.suitRanks(mask, 0);
+        int s1 = CardSet.suitRanks(mask, 1);
+        int s2 = CardSet.suitRanks(mask, 2);
+        int s3 = CardSet.suitRanks(mask, 3);
+        int flushRanks = 0;
+        if (Integer.bitCount(s0) >= 5) {
+            flushRanks = s0;
+        } else if (Integer.bitCount(s1) >= 5) {
+            flushRanks = s1;
+        } else if (Integer.bitCount(s2) >= 5) {
+            flushRanks = s2;
+        } else if (Integer.bitCount(s3) >= 5) {
+            flushRanks = s3;
+        }
+        if (flushRanks != 0 && STRAIGHT_TOP[flushRanks] >= 0) {
+            return STRAIGHT_FLUSH << CATEGORY_SHIFT | STRAIGHT_TOP[flushRanks];
+        }
+        int all = s0 | s1 | s2 | s3;
+        int four = s0 & s1 & s2 & s3;
+        if (four != 0) {
+            int rank = highest(four);
+            return FOUR_OF_KIND << CATEGORY_SHIFT | rank << 4 | highest(all & ~(1 << rank));
+        }
+        int two = s0 & s1 | s2 & s3 | (s0 | s1) & (s2 | s3);
+        int three = s0 & s1 & (s2 | s3) | s2 & s3 & (s0 | s1);
+        if (three != 0) {
+            int rank = highest(three);
+            int pairs = two & ~(1 << rank);
+            if (pairs != 0) {
+                return FULL_HOUSE << CATEGORY_SHIFT | rank << 4 | highest(pairs);
+            }
+        }
+        if (flushRanks != 0) {
+            return FLUSH << CATEGORY_SHIFT | TOP_RANKS[flushRanks];
+        }
+        if (STRAIGHT_TOP[all] >= 0) {
+            return STRAIGHT << CATEGORY_SHIFT | STRAIGHT_TOP[all];
+        }
+        if (three != 0) {
+            int rank = highest(three);
+            return THREE_OF_KIND << CATEGORY_SHIFT | rank << 8 | TOP_RANKS[all & ~(1 << rank)] >>> 12;
+        }
+        if (two != 0) {
+            int high = highest(two);
+            int rest = two & ~(1 << high);
+            if (rest != 0) {
+                int low = highest(rest);
+                return TWO_PAIR << CATEGORY_SHIFT | high << 8 | low << 4
+                        | highest(all & ~(1 << high) & ~(1 << low));
+            }
+            return ONE_PAIR << CATEGORY_SHIFT | high << 12 | TOP_RANKS[all & ~(1 << high)] >>> 8;
+        }
+        return HIGH_CARD << CATEGORY_SHIFT | TOP_RANKS[all];
+    }
+
+    /**
+     * Gets a value of the best hand.
+     *
+     * @param cards five to seven cards
+     */
+    public static int evaluate(Card... cards) {
+        return evaluate(CardSet.maskOf(cards));
+    }
+
+    /**
+     * Gets a category of a hand value.
+     */
+    public static int getCategory(int value) {
+        return value >>> CATEGORY_SHIFT;
+    }
+
+    /**
+     * Gets a name of a hand category.
+     */
+    public static String getCategoryName(int category) {
+        return CATEGORY_NAMES[category];
+    }
+
+    private static int highest(int ranks) {
+        return 31 - Integer.numberOfLeadingZeros(ranks);
+    }
+}
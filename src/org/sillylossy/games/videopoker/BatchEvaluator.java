@@ -0,0 +1,176 @@
+package org.sillylossy.games.videopoker;
+
+import org.sillylossy.games.common.cards.Card;
+import org.sillylossy.games.videopoker.PokerCombinations.Combination;
+
+/**
+ * Evaluates hands in batches.
+ * <p>
+ * The lane path classifies every hand without a single data-dependent branch: card IDs are mapped
+ * to rank and suit bits through small tables, rank counters are packed four bits per rank into a long
+ * (as in {@link HandEvaluator}), and every feature of the hand (number of distinct ranks, flush, straight,
+ * trips, quads, paying pair, royal) is turned into one bit of a code with shifts and masks.
+ * The combination is then read from a table by that code. Random hands don't stall the CPU on
+ * mispredicted branches, and the same branch-free arithmetic is what a vector unit would run per lane.
+ * <p>
+ * The scalar path runs {@link HandEvaluator} hand by hand and serves as a fallback and reference.
+ */
+final class BatchEvaluator {
+
+    /**
+     * Batches smaller than this are evaluated by the scalar path.
+     */
+    static final int MIN_LANE_BATCH = 16;
+
+    /**
+     * Code bits: number of distinct ranks takes bits 0 - 2.
+     */
+    private static final int FLUSH_BIT = 1 << 3;
+    private static final int STRAIGHT_BIT = 1 << 4;
+    private static final int TRIPS_BIT = 1 << 5;
+    private static final int QUADS_BIT = 1 << 6;
+    private static final int PAYING_PAIR_BIT = 1 << 7;
+    private static final int ROYAL_BIT = 1 << 8;
+
+    /**
+     * Combination ordinal by code.
+     */
+    private static final byte[] COMBINATIONS = createCombinations();
+
+    /**
+     * Rank bit of every card ID.
+     */
+    private static final int[] RANK_BITS = new int[Card.COUNT];
+
+    /**
+     * Suit bit of every card ID.
+     */
+    private static final int[] SUIT_BITS = new int[Card.COUNT];
+
+    /**
+     * Rank counter increment of every card ID.
+     */
+    private static final long[] COUNTER_UNITS = new long[Card.COUNT];
+
+    static {
+        for (int id = 0; id < Card.COUNT; id++) {
+            RANK_BITS[id] = 1 << Card.rankOf(id);
+            SUIT_BITS[id] = 1 << Card.suitOf(id);
+            COUNTER_UNITS[id] = 1L << (Card.rankOf(id) << 2);
+        }
+    }
+
+    /**
+     * Private constructor of utility class.
+     */
+    private BatchEvaluator() {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Evaluates a batch of hands under jacks or better rules.
+     *
+     * @param cardIdsFlat card IDs of all hands, hand N starts at index 5N
+     * @param out         receives combination ordinal of every hand
+     */
+    static void evaluate(int[] cardIdsFlat, byte[] out) {
+        evaluate(cardIdsFlat, cardIdsFlat.length / HandEvaluator.HAND_SIZE, JacksOrBetter.MIN_PAIR_INDEX, out);
+    }
+
+    /**
+     * Evaluates a batch of hands.
+     *
+     * @param ids          card IDs of all hands, hand N starts at index 5N
+     * @param hands        number of hands
+     * @param minPairIndex rank index (0 = two, 12 = ace) of the lowest paying pair
+     * @param out          receives combination ordinal of every hand
+     */
+    static void evaluate(int[] ids, int hands, int minPairIndex, byte[] out) {
+        if (hands < MIN_LANE_BATCH) {
+            evaluateScalar(ids, hands, minPairIndex, out);
+        } else {
+            evaluateLanes(ids, hands, minPairIndex, out);
+        }
+    }
+
+    /**
+     * Evaluates hands one by one with {@link HandEvaluator}.
+     */
+    static void evaluateScalar(int[] ids, int hands, int minPairIndex, byte[] out) {
+        for (int h = 0, i = 0; h < hands; h++, i += HandEvaluator.HAND_SIZE) {
+            out[h] = (byte) HandEvaluator.evaluate(ids[i], ids[i + 1], ids[i + 2], ids[i + 3], ids[i + 4], minPairIndex);
+        }
+    }
+
+    /**
+     * Evaluates hands with branch-free arithmetic.
+     */
+    static void evaluateLanes(int[] ids, int hands, int minPairIndex, byte[] out) {
+        for (int h = 0, i = 0; h < hands; h++, i += HandEvaluator.HAND_SIZE) {
+            int c0 = ids[i];
+            int c1 = ids[i + 1];
+            int c2 = ids[i + 2];
+            int c3 = ids[i + 3];
+            int c4 = ids[i + 4];
+            int ranks = RANK_BITS[c0] | RANK_BITS[c1] | RANK_BITS[c2] | RANK_BITS[c3] | RANK_BITS[c4];
+            int suits = SUIT_BITS[c0] | SUIT_BITS[c1] | SUIT_BITS[c2] | SUIT_BITS[c3] | SUIT_BITS[c4];
+            long counts = COUNTER_UNITS[c0] + COUNTER_UNITS[c1] + COUNTER_UNITS[c2]
+                    + COUNTER_UNITS[c3] + COUNTER_UNITS[c4];
+            int straight = isZero(ranks ^ (ranks & -ranks) * 0x1F) | isZero(ranks ^ HandEvaluator.WHEEL);
+            int pairRank = Long.numberOfTrailingZeros(counts & HandEvaluator.COUNTER_TWOS) >>> 2;
+            int code = Integer.bitCount(ranks)
+                    | isZero(suits & (suits - 1)) << 3
+                    | straight << 4
+                    | isNonZero(counts & (counts >>> 1) & HandEvaluator.COUNTER_ONES) << 5
+                    | isNonZero(counts & HandEvaluator.COUNTER_FOURS) << 6
+                    | (minPairIndex - 1 - pairRank) >>> 31 << 7
+                    | isZero(ranks ^ HandEvaluator.BROADWAY) << 8;
+            out[h] = COMBINATIONS[code];
+        }
+    }
+
+    /**
+     * Gets 1 if a non-negative value is zero, 0 otherwise.
+     */
+    private static int isZero(int value) {
+        return (value - 1) >>> 31;
+    }
+
+    /**
+     * Gets 1 if a value is not zero, 0 otherwise.
+     */
+    private static int isNonZero(long value) {
+        return (int) ((value | -value) >>> 63);
+    }
+
+    private static byte[] createCombinations() {
+        byte[] combinations = new byte[ROYAL_BIT << 1];
+        for (int code = 0; code < combinations.length; code++) {
+            Combination combination;
+            switch (code & 7) {
+                case 5:
+                    boolean flush = (code & FLUSH_BIT) != 0;
+                    boolean straight = (code & STRAIGHT_BIT) != 0;
+                    if (flush && straight) {
+                        combination = (code & ROYAL_BIT) != 0 ? Combination.ROYAL_FLUSH : Combination.STRAIGHT_FLUSH;
+                    } else if (flush) {
+                        combination = Combination.FLUSH;
+                    } else {
+                        combination = straight ? Combination.STRAIGHT : Combination.OTHER;
+                    }
+                    break;
+                case 4:
+                    combination = (code & PAYING_PAIR_BIT) != 0 ? Combination.ONE_PAIR : Combination.OTHER;
+                    break;
+                case 3:
+                    combination = (code & TRIPS_BIT) != 0 ? Combination.THREE_CARDS : Combination.TWO_PAIR;
+                    break;
+                default:
+                    combination = (code & QUADS_BIT) != 0 ? Combination.FOUR_CARDS : Combination.FULL_HOUSE;
+                    break;
+            }
+            combinations[code] = (byte) combination.ordinal();
+        }
+        return combinations;
+    }
+}
@@ -0,0 +1,58 @@
+package org.sillylossy.games.videopoker;
+
+import org.sillylossy.games.common.cards.Card;
+import org.sillylossy.games.videopoker.PokerCombinations.Combination;
+
+/**
+ * Bonus Poker (8/5): Jacks or Better with a bonus for four aces and four twos, threes or fours.
+ */
+final class BonusPoker extends Variant {
+
+    private static final int FOUR_FIVES_TO_KINGS = 7;
+    private static final int FOUR_TWOS_TO_FOURS = 8;
+    private static final int FOUR_ACES = 9;
+    private static final int STRAIGHT_FLUSH = 10;
+    private static final int ROYAL_FLUSH = 11;
+
+    /**
+     * Rank index of a five.
+     */
+    private static final int FIVE = 3;
+
+    BonusPoker() {
+        super("Bonus Poker", "bonus-poker.tbl", new String[]{
+                PokerCombinations.toString(Combination.OTHER),
+                PokerCombinations.toString(Combination.ONE_PAIR),
+                PokerCombinations.toString(Combination.TWO_PAIR),
+                PokerCombinations.toString(Combination.THREE_CARDS),
+                PokerCombinations.toString(Combination.STRAIGHT),
+                PokerCombinations.toString(Combination.FLUSH),
+                PokerCombinations.toString(Combination.FULL_HOUSE),
+                "Four fives to kings",
+                "Four twos to fours",
+                "Four aces",
+                PokerCombinations.toString(Combination.STRAIGHT_FLUSH),
+                PokerCombinations.toString(Combination.ROYAL_FLUSH)
+        }, new int[]{0, 1, 2, 3, 4, 5, 8, 25, 40, 80, 50, 800});
+    }
+
+    @Override
+    protected int classify(int c0, int c1, int c2, int c3, int c4) {
+        Combination combination = Combination.values()[HandEvaluator.evaluate(c0, c1, c2, c3, c4, JacksOrBetter.MIN_PAIR_INDEX)];
+        switch (combination) {
+            case FOUR_CARDS:
+                // either the first two cards are of the quad rank or the third one is
+                int rank = Card.rankOf(c0) == Card.rankOf(c1) ? Card.rankOf(c0) : Card.rankOf(c2);
+                if (rank == Card.RANKS - 1) {
+                    return FOUR_ACES;
+                }
+                return rank < FIVE ? FOUR_TWOS_TO_FOURS : FOUR_FIVES_TO_KINGS;
+            case STRAIGHT_FLUSH:
+                return STRAIGHT_FLUSH;
+            case ROYAL_FLUSH:
+                return ROYAL_FLUSH;
+            default:
+                return combination.ordinal();
+        }
+    }
+}
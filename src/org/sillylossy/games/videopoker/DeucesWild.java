@@ -0,0 +1,117 @@
+package org.sillylossy.games.videopoker;
+
+import org.sillylossy.games.common.cards.Card;
+
+/**
+ * Deuces Wild (full pay): every two substitutes for any card, three of a kind is the lowest paying hand.
+ * <p>
+ * A hand is classified from its natural cards directly (rank counts, suits and the straight windows
+ * the natural ranks fit in), without trying substitutions.
+ */
+final class DeucesWild extends Variant {
+
+    private static final int NOTHING = 0;
+    private static final int THREE_OF_KIND = 1;
+    private static final int STRAIGHT = 2;
+    private static final int FLUSH = 3;
+    private static final int FULL_HOUSE = 4;
+    private static final int FOUR_OF_KIND = 5;
+    private static final int STRAIGHT_FLUSH = 6;
+    private static final int FIVE_OF_KIND = 7;
+    private static final int WILD_ROYAL = 8;
+    private static final int FOUR_DEUCES = 9;
+    private static final int NATURAL_ROYAL = 10;
+
+    /**
+     * Rank index of a wild card.
+     */
+    private static final int DEUCE = 0;
+
+    private static final int ACE = Card.RANKS - 1;
+
+    /**
+     * Rank mask of ten to ace.
+     */
+    private static final int ROYAL_RANKS = 0x1F00;
+
+    DeucesWild() {
+        super("Deuces Wild", "deuces-wild.tbl", new String[]{
+                "Nothing",
+                "Three of kind",
+                "Straight",
+                "Flush",
+                "Full house",
+                "Four of kind",
+                "Straight flush",
+                "Five of kind",
+                "Wild royal flush",
+                "Four deuces",
+                "Natural royal flush"
+        }, new int[]{0, 1, 2, 2, 3, 5, 9, 15, 25, 200, 800});
+    }
+
+    @Override
+    protected int classify(int c0, int c1, int c2, int c3, int c4) {
+        int wilds = 0;
+        int ranks = 0;
+        int suits = 0;
+        int[] counts = new int[Card.RANKS];
+        for (int id : new int[]{c0, c1, c2, c3, c4}) {
+            int rank = Card.rankOf(id);
+            if (rank == DEUCE) {
+                ++wilds;
+            } else {
+                ranks |= 1 << rank;
+                suits |= 1 << Card.suitOf(id);
+                counts[rank]++;
+            }
+        }
+        if (wilds == 4) {
+            return FOUR_DEUCES;
+        }
+        int maxCount = 0;
+        for (int count : counts) {
+            maxCount = Math.max(maxCount, count);
+        }
+        boolean flush = Integer.bitCount(suits) == 1;
+        boolean straight = maxCount == 1 && (fitsStraight(ranks << 1)
+                || fitsStraight((ranks & ~(1 << ACE)) << 1 | (ranks >>> ACE)));
+        if (flush && straight && (ranks & ~ROYAL_RANKS) == 0) {
+            return wilds == 0 ? NATURAL_ROYAL : WILD_ROYAL;
+        }
+        if (maxCount + wilds >= 5) {
+            return FIVE_OF_KIND;
+        }
+        if (flush && straight) {
+            return STRAIGHT_FLUSH;
+        }
+        if (maxCount + wilds >= 4) {
+            return FOUR_OF_KIND;
+        }
+        if (Integer.bitCount(ranks) == 2) {
+            // three and two naturals, or two pairs and a deuce
+            return FULL_HOUSE;
+        }
+        if (flush) {
+            return FLUSH;
+        }
+        if (straight) {
+            return STRAIGHT;
+        }
+        return maxCount + wilds >= 3 ? THREE_OF_KIND : NOTHING;
+    }
+
+    /**
+     * Checks whether natural ranks fit in five consecutive ranks, so deuces can fill the gaps.
+     *
+     * @param ranks rank mask where bit 0 is a low ace and bit N + 1 is rank index N
+     */
+    private static boolean fitsStraight(int ranks) {
+        for (int low = 0; low + 5 <= Card.RANKS + 1; low++) {
+            if ((ranks & ~(0x1F << low)) == 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,93 @@
+package org.sillylossy.games.videopoker;
+
+import org.sillylossy.games.common.cards.Card;
+import org.sillylossy.games.common.cards.CardSet;
+
+/**
+ * Maps five-card hands to a canonical suit-permuted form.
+ * <p>
+ * Suits of a hand are ordered by their rank masks (descending) and renamed in that order,
+ * so all hands that differ only by a permutation of suits get the same canonical mask.
+ * The 2,598,960 hands collapse into 134,459 classes.
+ */
+final class HandCanonicalizer {
+
+    /**
+     * Private constructor of utility class.
+     */
+    private HandCanonicalizer() {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Gets a canonical mask of a hand.
+     *
+     * @param mask card mask
+     */
+    static long canonicalize(long mask) {
+        return canonicalize(mask, null);
+    }
+
+    /**
+     * Gets a canonical mask of a hand and the suit permutation that produces it.
+     *
+     * @param mask        card mask
+     * @param permutation array of 4 to receive canonical suit of every original suit, or null
+     */
+    static long canonicalize(long mask, int[] permutation) {
+        int s0 = CardSet.suitRanks(mask, 0);
+        int s1 = CardSet.suitRanks(mask, 1);
+        int s2 = CardSet.suitRanks(mask, 2);
+        int s3 = CardSet.suitRanks(mask, 3);
+        // rank of every suit in descending order of masks; ties are broken by suit index
+        int p0 = (s1 > s0 ? 1 : 0) + (s2 > s0 ? 1 : 0) + (s3 > s0 ? 1 : 0);
+        int p1 = (s0 >= s1 ? 1 : 0) + (s2 > s1 ? 1 : 0) + (s3 > s1 ? 1 : 0);
+        int p2 = (s0 >= s2 ? 1 : 0) + (s1 >= s2 ? 1 : 0) + (s3 > s2 ? 1 : 0);
+        int p3 = (s0 >= s3 ? 1 : 0) + (s1 >= s3 ? 1 : 0) + (s2 >= s3 ? 1 : 0);
+        if (permutation != null) {
+            permutation[0] = p0;
+            permutation[1] = p1;
+            permutation[2] = p2;
+            permutation[3] = p3;
+        }
+        return (long) s0 << (p0 * Card.RANKS) | (long) s1 << (p1 * Card.RANKS)
+                | (long) s2 << (p2 * Card.RANKS) | (long) s3 << (p3 * Card.RANKS);
+    }
+
+    /**
+     * Maps every dealt card to its position among the canonical cards (ascending by card ID).
+     *
+     * @param dealt       dealt cards
+     * @param permutation suit permutation from {@link #canonicalize(long, int[])}
+     * @return canonical position of every dealt card
+     */
+    static int[] positions(Card[] dealt, int[] permutation) {
+        int[] ids = new int[dealt.length];
+        for (int i = 0; i < dealt.length; i++) {
+            Card card = dealt[i];
+            ids[i] = Card.idOf(card.getRankIndex(), permutation[card.getCardSuit().ordinal()]);
+        }
+        int[] positions = new int[dealt.length];
+        for (int i = 0; i < dealt.length; i++) {
+            for (int j = 0; j < dealt.length; j++) {
+                if (ids[j] < ids[i]) {
+                    positions[i]++;
+                }
+            }
+        }
+        return positions;
+    }
+
+    /**
+     * Maps a hold pattern over dealt cards to a pattern over canonical cards.
+     */
+    static int toCanonicalPattern(int pattern, int[] positions) {
+        int canonical = 0;
+        for (int i = 0; i < positions.length; i++) {
+            if ((pattern & (1 << i)) != 0) {
+                canonical |= 1 << positions[i];
+            }
+        }
+        return canonical;
+    }
+}
@@ -0,0 +1,137 @@
+package org.sillylossy.games.videopoker;
+
+import org.sillylossy.games.common.cards.Card;
+import org.sillylossy.games.common.cards.CardRank;
+import org.sillylossy.games.videopoker.PokerCombinations.Combination;
+
+/**
+ * Classifies a 5-card hand in a single pass without sorting or allocation.
+ * <p>
+ * Every card sets a bit in a rank mask and a suit mask and adds one to a 4-bit rank counter
+ * packed into a long (counter N occupies bits 4N - 4N+3, ranks are indexed from two to ace).
+ * The combination is then read from these three values with a few bit operations.
+ */
+final class HandEvaluator {
+
+    /**
+     * Number of cards in a poker hand.
+     */
+    static final int HAND_SIZE = 5;
+
+    /**
+     * Rank mask of a wheel (ace to five) straight.
+     */
+    static final int WHEEL = 0x100F;
+
+    /**
+     * Rank mask of a ten to ace straight.
+     */
+    static final int BROADWAY = 0x1F00;
+
+    /**
+     * Lowest bit of every rank counter.
+     */
+    static final long COUNTER_ONES = 0x1111111111111L;
+
+    /**
+     * Bit "2" of every rank counter.
+     */
+    static final long COUNTER_TWOS = COUNTER_ONES << 1;
+
+    /**
+     * Bit "4" of every rank counter.
+     */
+    static final long COUNTER_FOURS = COUNTER_ONES << 2;
+
+    private static final Combination[] COMBINATIONS = Combination.values();
+
+    /**
+     * Private constructor of utility class.
+     */
+    private HandEvaluator() {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Gets the best combination of five cards.
+     *
+     * @param cards       five cards (not modified)
+     * @param minPairRank lowest rank of a paying pair
+     */
+    static Combination evaluate(Card[] cards, CardRank minPairRank) {
+        return COMBINATIONS[evaluate(cards[0].getId(), cards[1].getId(), cards[2].getId(),
+                cards[3].getId(), cards[4].getId(), Card.rankIndexOf(minPairRank))];
+    }
+
+    /**
+     * Gets the best combination of five distinct cards.
+     *
+     * @param mask         mask of five cards
+     * @param minPairIndex rank index (0 = two, 12 = ace) of the lowest paying pair
+     * @return combination ordinal
+     */
+    static int evaluate(long mask, int minPairIndex) {
+        int c0 = Long.numberOfTrailingZeros(mask);
+        mask &= mask - 1;
+        int c1 = Long.numberOfTrailingZeros(mask);
+        mask &= mask - 1;
+        int c2 = Long.numberOfTrailingZeros(mask);
+        mask &= mask - 1;
+        int c3 = Long.numberOfTrailingZeros(mask);
+        mask &= mask - 1;
+        return evaluate(c0, c1, c2, c3, Long.numberOfTrailingZeros(mask), minPairIndex);
+    }
+
+    /**
+     * Gets the best combination of five cards given by IDs.
+     *
+     * @param minPairIndex rank index (0 = two, 12 = ace) of the lowest paying pair
+     * @return combination ordinal
+     */
+    static int evaluate(int c0, int c1, int c2, int c3, int c4, int minPairIndex) {
+        int r0 = c0 % Card.RANKS;
+        int r1 = c1 % Card.RANKS;
+        int r2 = c2 % Card.RANKS;
+        int r3 = c3 % Card.RANKS;
+        int r4 = c4 % Card.RANKS;
+        int ranks = 1 << r0 | 1 << r1 | 1 << r2 | 1 << r3 | 1 << r4;
+        int suits = 1 << (c0 / Card.RANKS) | 1 << (c1 / Card.RANKS) | 1 << (c2 / Card.RANKS)
+                | 1 << (c3 / Card.RANKS) | 1 << (c4 / Card.RANKS);
+        long counts = (1L << (r0 << 2)) + (1L << (r1 << 2)) + (1L << (r2 << 2))
+                + (1L << (r3 << 2)) + (1L << (r4 << 2));
+        return classify(ranks, suits, counts, minPairIndex);
+    }
+
+    /**
+     * Reads a combination from hand summary.
+     *
+     * @param ranks        rank mask
+     * @param suits        suit mask
+     * @param counts       packed 4-bit rank counters
+     * @param minPairIndex rank index of the lowest paying pair
+     * @return combination ordinal
+     */
+    static int classify(int ranks, int suits, long counts, int minPairIndex) {
+        switch (Integer.bitCount(ranks)) {
+            case 5:
+                boolean flush = (suits & (suits - 1)) == 0;
+                boolean straight = ranks == WHEEL || ranks / Integer.lowestOneBit(ranks) == 0x1F;
+                if (flush) {
+                    if (ranks == BROADWAY) {
+                        return Combination.ROYAL_FLUSH.ordinal();
+                    }
+                    return straight ? Combination.STRAIGHT_FLUSH.ordinal() : Combination.FLUSH.ordinal();
+                }
+                return straight ? Combination.STRAIGHT.ordinal() : Combination.OTHER.ordinal();
+            case 4:
+                int pairRank = Long.numberOfTrailingZeros(counts & COUNTER_TWOS) >>> 2;
+                return pairRank >= minPairIndex ? Combination.ONE_PAIR.ordinal() : Combination.OTHER.ordinal();
+            case 3:
+                return (counts & (counts >>> 1) & COUNTER_ONES) != 0
+                        ? Combination.THREE_CARDS.ordinal() : Combination.TWO_PAIR.ordinal();
+            default:
+                return (counts & COUNTER_FOURS) != 0
+                        ? Combination.FOUR_CARDS.ordinal() : Combination.FULL_HOUSE.ordinal();
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package org.sillylossy.games.videopoker;
+
+import org.sillylossy.games.common.cards.Card;
+
+/**
+ * Index of the lookup tables of all 2,598,960 five-card hands.
+ * <p>
+ * A hand (mask of five card IDs) is mapped to its combinatorial (colex) index
+ * {@code C(c0, 1) + C(c1, 2) + C(c2, 3) + C(c3, 4) + C(c4, 5)} for ascending card IDs,
+ * which is a perfect hash onto 0 - 2,598,959. Every {@link Variant} keeps a memory-mapped table
+ * with a category of every hand by this index.
+ */
+final class HandTable {
+
+    /**
+     * Number of distinct five-card hands.
+     */
+    static final int HANDS = 2598960;
+
+    /**
+     * Binomial coefficients C(n, k) for n up to 52 and k up to 5.
+     */
+    static final int[][] BINOMIAL = createBinomial();
+
+    /**
+     * Colex index terms C(id, k + 1) laid out flat as [k * 64 + id] for fast lookup.
+     */
+    private static final int[] COLEX = createColex();
+
+    private HandTable() {
+    }
+
+    /**
+     * Gets a colex index of a hand.
+     *
+     * @param mask mask of five cards
+     */
+    static int index(long mask) {
+        int c0 = Long.numberOfTrailingZeros(mask);
+        mask &= mask - 1;
+        int c1 = Long.numberOfTrailingZeros(mask);
+        mask &= mask - 1;
+        int c2 = Long.numberOfTrailingZeros(mask);
+        mask &= mask - 1;
+        int c3 = Long.numberOfTrailingZeros(mask);
+        mask &= mask - 1;
+        int c4 = Long.numberOfTrailingZeros(mask);
+        return COLEX[c0] + COLEX[64 + c1] + COLEX[128 + c2] + COLEX[192 + c3] + COLEX[256 + c4];
+    }
+
+    /**
+     * Gets a colex index of a set of up to five cards among the sets of the same size.
+     *
+     * @param mask mask of zero to five cards
+     */
+    static int subsetIndex(long mask) {
+        int index = 0;
+        for (int k = 0; mask != 0; k += 64, mask &= mask - 1) {
+            index += COLEX[k + Long.numberOfTrailingZeros(mask)];
+        }
+        return index;
+    }
+
+    private static int[][] createBinomial() {
+        int[][] binomial = new int[Card.COUNT + 1][HandEvaluator.HAND_SIZE + 1];
+        for (int n = 0; n <= Card.COUNT; n++) {
+            binomial[n][0] = 1;
+            for (int k = 1; k <= HandEvaluator.HAND_SIZE && k <= n; k++) {
+                binomial[n][k] = binomial[n - 1][k - 1] + binomial[n - 1][k];
+            }
+        }
+        return binomial;
+    }
+
+    private static int[] createColex() {
+        int[] colex = new int[HandEvaluator.HAND_SIZE * 64];
+        for (int k = 0; k < HandEvaluator.HAND_SIZE; k++) {
+            for (int id = 0; id < Card.COUNT; id++) {
+                colex[k * 64 + id] = BINOMIAL[id][k + 1];
+            }
+        }
+        return colex;
+    }
+}
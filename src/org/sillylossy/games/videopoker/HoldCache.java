@@ -0,0 +1,177 @@
+package org.sillylossy.games.videopoker;
+
+import org.sillylossy.games.common.cards.Card;
+
+import java.util.Arrays;
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded concurrent cache of solved hold values.
+ * <p>
+ * Hands are keyed by their canonical suit-permuted form ({@link HandCanonicalizer}), the variant and the pay table
+ * reduced by the greatest common divisor of its payouts, so the same hand under any bet size is a hit.
+ * Values are stored for canonical hold patterns and remapped to the real card order on every lookup.
+ * When the cache is full, the oldest entries are evicted first.
+ */
+final class HoldCache {
+
+    /**
+     * Maximum number of entries.
+     */
+    private final int capacity;
+
+    private final ConcurrentHashMap<Key, double[]> entries = new ConcurrentHashMap<>();
+
+    /**
+     * Keys in insertion order, used for eviction.
+     */
+    private final Queue<Key> order = new ConcurrentLinkedQueue<>();
+
+    private final AtomicLong hits = new AtomicLong();
+
+    private final AtomicLong misses = new AtomicLong();
+
+    HoldCache(int capacity) {
+        this.capacity = capacity;
+    }
+
+    /**
+     * Starts getting hold values on the common fork/join pool.
+     */
+    ForkJoinTask<double[]> solveAsync(final Card[] dealt, final Variant variant, final int[] pays) {
+        return ForkJoinPool.commonPool().submit(new Callable<double[]>() {
+            @Override
+            public double[] call() throws Exception {
+                return solve(dealt, variant, pays);
+            }
+        });
+    }
+
+    /**
+     * Gets expected payouts of all hold patterns, solving the hand if it is not cached.
+     *
+     * @param dealt   five dealt cards
+     * @param variant rules of the game
+     * @param pays    payouts indexed by category of the variant
+     * @return expected payouts indexed by hold pattern over dealt cards
+     */
+    double[] solve(Card[] dealt, Variant variant, int[] pays) {
+        int divisor = 0;
+        for (int pay : pays) {
+            divisor = gcd(divisor, pay);
+        }
+        if (divisor == 0) {
+            return new double[HoldSolver.PATTERNS];
+        }
+        int[] unitPays = new int[pays.length];
+        for (int i = 0; i < pays.length; i++) {
+            unitPays[i] = pays[i] / divisor;
+        }
+        long mask = 0;
+        for (Card card : dealt) {
+            mask |= 1L << card.getId();
+        }
+        int[] permutation = new int[4];
+        long canonical = HandCanonicalizer.canonicalize(mask, permutation);
+        Key key = new Key(canonical, variant, unitPays);
+        double[] canonicalValues = entries.get(key);
+        if (canonicalValues != null) {
+            hits.incrementAndGet();
+        } else {
+            misses.incrementAndGet();
+            canonicalValues = HoldSolver.solve(toCards(canonical), variant, unitPays);
+            if (entries.putIfAbsent(key, canonicalValues) == null) {
+                order.add(key);
+                evict();
+            }
+        }
+        int[] positions = HandCanonicalizer.positions(dealt, permutation);
+        double[] values = new double[HoldSolver.PATTERNS];
+        for (int pattern = 0; pattern < HoldSolver.PATTERNS; pattern++) {
+            values[pattern] = canonicalValues[HandCanonicalizer.toCanonicalPattern(pattern, positions)] * divisor;
+        }
+        return values;
+    }
+
+    /**
+     * Removes the oldest entries while the cache is over capacity.
+     */
+    private void evict() {
+        while (entries.size() > capacity) {
+            Key oldest = order.poll();
+            if (oldest == null) {
+                return;
+            }
+            entries.remove(oldest);
+        }
+    }
+
+    /**
+     * Gets cards of a mask in ascending order of IDs.
+     */
+    private static Card[] toCards(long mask) {
+        Card[] cards = new Card[Long.bitCount(mask)];
+        for (int i = 0; mask != 0; mask &= mask - 1) {
+            cards[i++] = Card.byId(Long.numberOfTrailingZeros(mask));
+        }
+        return cards;
+    }
+
+    private static int gcd(int a, int b) {
+        while (b != 0) {
+            int t = a % b;
+            a = b;
+            b = t;
+        }
+        return Math.abs(a);
+    }
+
+    long getHits() {
+        return hits.get();
+    }
+
+    long getMisses() {
+        return misses.get();
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    /**
+     * Cache key: canonical hand, variant and reduced pay table.
+     */
+    private static final class Key {
+
+        private final long hand;
+        private final Variant variant;
+        private final int[] pays;
+        private final int hash;
+
+        Key(long hand, Variant variant, int[] pays) {
+            this.hand = hand;
+            this.variant = variant;
+            this.pays = pays;
+            hash = 31 * (31 * (int) (hand ^ (hand >>> 32)) + variant.hashCode()) + Arrays.hashCode(pays);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            Key key = (Key) o;
+            return hand == key.hand && variant == key.variant && Arrays.equals(pays, key.pays);
+        }
+    }
+}
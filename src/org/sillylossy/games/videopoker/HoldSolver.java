@@ -0,0 +1,183 @@
+package org.sillylossy.games.videopoker;
+
+import org.sillylossy.games.common.cards.Card;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Computes exact expected values of all 32 hold patterns of a dealt hand.
+ * <p>
+ * For every pattern all possible draws from the 47 remaining cards are enumerated
+ * (1,533,939 draws for a full redraw, 2,598,960 for all patterns together) and evaluated with
+ * the lookup table of a {@link Variant}.
+ * The work is split into fork/join tasks by hold pattern and by the first drawn card.
+ * <p>
+ * Bit N of a hold pattern is set when N-th dealt card is held.
+ */
+final class HoldSolver {
+
+    /**
+     * Number of hold patterns of a five-card hand.
+     */
+    static final int PATTERNS = 1 << HandEvaluator.HAND_SIZE;
+
+    /**
+     * Number of cards left in a deck after the deal.
+     */
+    private static final int REMAINING = Card.COUNT - HandEvaluator.HAND_SIZE;
+
+    /**
+     * Private constructor of utility class.
+     */
+    private HoldSolver() {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Computes expected payout of every hold pattern.
+     *
+     * @param dealt   five dealt cards
+     * @param variant rules of the game
+     * @param pays    payouts indexed by category of the variant
+     * @return expected payouts indexed by hold pattern
+     */
+    static double[] solve(Card[] dealt, Variant variant, int[] pays) {
+        return ForkJoinPool.commonPool().invoke(new SolveTask(dealt, variant.getTable(), pays));
+    }
+
+    /**
+     * Gets a hold pattern with the greatest expected payout.
+     */
+    static int bestHold(double[] values) {
+        int best = 0;
+        for (int pattern = 1; pattern < values.length; pattern++) {
+            if (values[pattern] > values[best]) {
+                best = pattern;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Gets a number of draws for a pattern: C(47, number of discarded cards).
+     */
+    static int drawCount(int pattern) {
+        return HandTable.BINOMIAL[REMAINING][HandEvaluator.HAND_SIZE - Integer.bitCount(pattern)];
+    }
+
+    /**
+     * Root task: prepares the remaining deck and forks a task per pattern and first drawn card.
+     */
+    private static final class SolveTask extends RecursiveTask<double[]> {
+
+        private final Card[] dealt;
+        private final ByteBuffer categories;
+        private final int[] pays;
+
+        SolveTask(Card[] dealt, ByteBuffer categories, int[] pays) {
+            this.dealt = dealt.clone();
+            this.categories = categories;
+            this.pays = pays;
+        }
+
+        @Override
+        protected double[] compute() {
+            long dealtMask = 0;
+            for (Card card : dealt) {
+                dealtMask |= 1L << card.getId();
+            }
+            int[] remaining = new int[REMAINING];
+            int n = 0;
+            for (int id = 0; id < Card.COUNT; id++) {
+                if ((dealtMask & (1L << id)) == 0) {
+                    remaining[n++] = id;
+                }
+            }
+            List<DrawTask> tasks = new ArrayList<>();
+            for (int pattern = 0; pattern < PATTERNS; pattern++) {
+                long held = 0;
+                for (int i = 0; i < dealt.length; i++) {
+                    if ((pattern & (1 << i)) != 0) {
+                        held |= 1L << dealt[i].getId();
+                    }
+                }
+                int draws = HandEvaluator.HAND_SIZE - Integer.bitCount(pattern);
+                if (draws < 2) {
+                    tasks.add(new DrawTask(categories, remaining, pays, pattern, held, draws, 0, REMAINING));
+                } else {
+                    for (int first = 0; first <= REMAINING - draws; first++) {
+                        tasks.add(new DrawTask(categories, remaining, pays, pattern, held, draws, first, first + 1));
+                    }
+                }
+            }
+            ForkJoinTask.invokeAll(tasks);
+            long[] sums = new long[PATTERNS];
+            for (DrawTask task : tasks) {
+                sums[task.pattern] += task.join();
+            }
+            double[] values = new double[PATTERNS];
+            for (int pattern = 0; pattern < PATTERNS; pattern++) {
+                values[pattern] = (double) sums[pattern] / drawCount(pattern);
+            }
+            return values;
+        }
+    }
+
+    /**
+     * Sums payouts of all draws of one pattern whose first drawn card is in the given range.
+     */
+    private static final class DrawTask extends RecursiveTask<Long> {
+
+        private final ByteBuffer categories;
+        private final int[] remaining;
+        private final int[] pays;
+        private final int pattern;
+        private final long held;
+        private final int draws;
+        private final int from;
+        private final int to;
+
+        DrawTask(ByteBuffer categories, int[] remaining, int[] pays,
+                 int pattern, long held, int draws, int from, int to) {
+            this.categories = categories;
+            this.remaining = remaining;
+            this.pays = pays;
+            this.pattern = pattern;
+            this.held = held;
+            this.draws = draws;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Long compute() {
+            if (draws == 0) {
+                return (long) pays[categories.get(HandTable.index(held))];
+            }
+            long sum = 0;
+            for (int i = from; i < to; i++) {
+                sum += draw(held | 1L << remaining[i], draws - 1, i + 1);
+            }
+            return sum;
+        }
+
+        /**
+         * Enumerates the rest of the draws recursively.
+         */
+        private long draw(long mask, int left, int start) {
+            if (left == 0) {
+                return pays[categories.get(HandTable.index(mask))];
+            }
+            long sum = 0;
+            for (int i = start; i <= REMAINING - left; i++) {
+                sum += draw(mask | 1L << remaining[i], left - 1, i + 1);
+            }
+            return sum;
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package org.sillylossy.games.videopoker;
+
+import org.sillylossy.games.common.cards.Card;
+import org.sillylossy.games.common.cards.CardRank;
+import org.sillylossy.games.videopoker.PokerCombinations.Combination;
+
+/**
+ * Jacks or Better: categories are {@link Combination} values, a pair pays from jacks.
+ */
+final class JacksOrBetter extends Variant {
+
+    /**
+     * Lowest pair that pays.
+     */
+    static final CardRank MIN_PAIR = CardRank.JACK;
+
+    static final int MIN_PAIR_INDEX = Card.rankIndexOf(MIN_PAIR);
+
+    JacksOrBetter() {
+        super("Jacks or Better", "jacks-or-better.tbl", getCategoryNames(),
+                new int[]{0, 1, 2, 3, 4, 6, 9, 25, 50, 250});
+    }
+
+    private static String[] getCategoryNames() {
+        Combination[] combinations = Combination.values();
+        String[] names = new String[combinations.length];
+        for (int i = 0; i < names.length; i++) {
+            names[i] = PokerCombinations.toString(combinations[i]);
+        }
+        return names;
+    }
+
+    /**
+     * Evaluates hands with {@link BatchEvaluator}, which doesn't need the lookup table.
+     */
+    @Override
+    void evaluate(int[] ids, int hands, byte[] out) {
+        BatchEvaluator.evaluate(ids, hands, MIN_PAIR_INDEX, out);
+    }
+
+    @Override
+    protected int classify(int c0, int c1, int c2, int c3, int c4) {
+        return HandEvaluator.evaluate(c0, c1, c2, c3, c4, MIN_PAIR_INDEX);
+    }
+}
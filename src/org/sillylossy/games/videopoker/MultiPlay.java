@@ -0,0 +1,130 @@
+package org.sillylossy.games.videopoker;
+
+import org.sillylossy.games.common.cards.Card;
+import org.sillylossy.games.common.cards.Deck;
+import org.sillylossy.games.common.cards.ShuffleSource;
+
+/**
+ * Extra hands of multi-play video poker.
+ * <p>
+ * Held cards are copied to every extra hand, and every hand draws its replacements from its own copy
+ * of the remaining deck. Hands are kept as card IDs in one flat array and evaluated in one batch,
+ * so playing a round allocates nothing once the arrays have grown to the number of hands.
+ */
+final class MultiPlay {
+
+    /**
+     * Remaining deck shared by all hands.
+     */
+    private final int[] remaining = new int[Card.COUNT];
+
+    /**
+     * Copy of the remaining deck that a hand draws from.
+     */
+    private final int[] scratch = new int[Card.COUNT];
+
+    /**
+     * Card IDs of all hands, hand N starts at index 5N.
+     */
+    private int[] hands = new int[0];
+
+    /**
+     * Category of every hand.
+     */
+    private byte[] results = new byte[0];
+
+    /**
+     * Number of hands played in the last round.
+     */
+    private int count;
+
+    /**
+     * Plays extra hands.
+     *
+     * @param dealt   dealt cards
+     * @param pattern hold pattern (bit N set = N-th dealt card held)
+     * @param deck    deck after the deal (not modified)
+     * @param count   number of extra hands
+     * @param source  source of random draws
+     * @param variant rules of the game
+     */
+    void play(Card[] dealt, int pattern, Deck deck, int count, ShuffleSource source, Variant variant) {
+        if (hands.length < count * HandEvaluator.HAND_SIZE) {
+            hands = new int[count * HandEvaluator.HAND_SIZE];
+            results = new byte[count];
+        }
+        this.count = count;
+        int size = deck.copyCards(remaining);
+        for (int h = 0, i = 0; h < count; h++) {
+            System.arraycopy(remaining, 0, scratch, 0, size);
+            int left = size;
+            for (int n = 0; n < HandEvaluator.HAND_SIZE; n++, i++) {
+                if ((pattern & (1 << n)) != 0) {
+                    hands[i] = dealt[n].getId();
+                } else {
+                    int j = source.nextInt(left);
+                    hands[i] = scratch[j];
+                    scratch[j] = scratch[--left];
+                }
+            }
+        }
+        variant.evaluate(hands, count, results);
+    }
+
+    /**
+     * Gets a number of hands played in the last round.
+     */
+    int getCount() {
+        return count;
+    }
+
+    /**
+     * Gets an ID of a card of a hand.
+     *
+     * @param hand hand number
+     * @param n    position of the card in the hand (0 - 4)
+     */
+    int getCardId(int hand, int n) {
+        return hands[hand * HandEvaluator.HAND_SIZE + n];
+    }
+
+    /**
+     * Gets a category of a hand.
+     */
+    int getCategory(int hand) {
+        return results[hand];
+    }
+
+    /**
+     * Gets a total payout of all hands.
+     *
+     * @param pays payouts indexed by category
+     */
+    int getPayout(int[] pays) {
+        int total = 0;
+        for (int h = 0; h < count; h++) {
+            total += pays[results[h]];
+        }
+        return total;
+    }
+
+    /**
+     * Gets a number of hands of every category.
+     *
+     * @param categoryCount number of categories of the variant
+     */
+    int[] getCategoryCounts(int categoryCount) {
+        int[] counts = new int[categoryCount];
+        for (int h = 0; h < count; h++) {
+            counts[results[h]]++;
+        }
+        return counts;
+    }
+
+    /**
+     * Forgets the last round.
+     */
+    void clear() {
+        count = 0;
+    }
+}
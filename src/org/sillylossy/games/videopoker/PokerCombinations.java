@@ -100,7 +100,18 @@ class PokerCombinations {
         return new PokerCombinations(repeats, pairsSet, cards, minPairRank);
     }
 
+    /**
+     * Gets the best combination of the cards. Uses {@link HandEvaluator}.
+     */
     Combination getBestCombination() {
+        return HandEvaluator.evaluate(cards, minPairRank);
+    }
+
+    /**
+     * Gets the best combination of the cards checking every combination rule in turn.
+     * Slow reference implementation for {@link HandEvaluator}.
+     */
+    Combination getBestCombinationByRules() {
         if (hasRoyalFlush()) {
             return Combination.ROYAL_FLUSH;
         }
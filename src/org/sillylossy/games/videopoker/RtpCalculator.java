@@ -0,0 +1,339 @@
+package org.sillylossy.games.videopoker;
+
+import org.sillylossy.games.common.cards.Card;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Computes the exact return to player of a variant pay table under the optimal hold strategy.
+ * <p>
+ * Every five-card set is enumerated once to count, for every subset of up to four cards,
+ * how many hands of every category contain it. The number of final hands of a hold is then
+ * found by inclusion-exclusion over the discarded cards (a superset Moebius transform
+ * over the 32 subsets of a dealt hand), so a dealt hand costs a few hundred additions
+ * instead of 2,598,960 evaluations. Only canonical hands ({@link HandCanonicalizer}) are solved,
+ * weighted by the number of deals they stand for, in parallel on the common fork/join pool.
+ */
+final class RtpCalculator {
+
+    /**
+     * Hold pattern where all cards are held.
+     */
+    private static final int ALL_HELD = HoldSolver.PATTERNS - 1;
+
+    /**
+     * Number of canonical hands solved by one task.
+     */
+    private static final int CHUNK = 1024;
+
+    private final Variant variant;
+
+    /**
+     * Category of every hand by colex index.
+     */
+    private final ByteBuffer categories;
+
+    /**
+     * Number of categories of the variant.
+     */
+    private final int categoryCount;
+
+    /**
+     * Numbers of hands of every category containing a subset, by subset size (0 - 4):
+     * [subset colex index * category count + category].
+     */
+    private final int[][] subsetCounts = new int[HandEvaluator.HAND_SIZE][];
+
+    /**
+     * Canonical hands.
+     */
+    private final long[] classes;
+
+    /**
+     * Numbers of deals every canonical hand stands for.
+     */
+    private final int[] weights;
+
+    /**
+     * Creates a calculator for a variant, enumerating all hands.
+     */
+    RtpCalculator(Variant variant) {
+        this.variant = variant;
+        categories = variant.getTable();
+        categoryCount = variant.getCategoryCount();
+        for (int k = 0; k < HandEvaluator.HAND_SIZE; k++) {
+            subsetCounts[k] = new int[HandTable.BINOMIAL[Card.COUNT][k] * categoryCount];
+        }
+        int[] classWeights = new int[HandTable.HANDS];
+        long[] found = new long[1024];
+        int classCount = 0;
+        int[] ids = new int[HandEvaluator.HAND_SIZE];
+        long[] subsets = new long[HoldSolver.PATTERNS];
+        for (ids[0] = 0; ids[0] < Card.COUNT; ids[0]++) {
+            for (ids[1] = ids[0] + 1; ids[1] < Card.COUNT; ids[1]++) {
+                for (ids[2] = ids[1] + 1; ids[2] < Card.COUNT; ids[2]++) {
+                    for (ids[3] = ids[2] + 1; ids[3] < Card.COUNT; ids[3]++) {
+                        for (ids[4] = ids[3] + 1; ids[4] < Card.COUNT; ids[4]++) {
+                            fillSubsets(ids, subsets);
+                            long mask = subsets[ALL_HELD];
+                            int category = categories.get(HandTable.index(mask));
+                            for (int p = 0; p < ALL_HELD; p++) {
+                                int index = HandTable.subsetIndex(subsets[p]);
+                                subsetCounts[Integer.bitCount(p)][index * categoryCount + category]++;
+                            }
+                            long canonical = HandCanonicalizer.canonicalize(mask);
+                            if (classWeights[HandTable.index(canonical)]++ == 0) {
+                                if (classCount == found.length) {
+                                    found = Arrays.copyOf(found, classCount * 2);
+                                }
+                                found[classCount++] = canonical;
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        classes = Arrays.copyOf(found, classCount);
+        weights = new int[classCount];
+        for (int i = 0; i < classCount; i++) {
+            weights[i] = classWeights[HandTable.index(classes[i])];
+        }
+    }
+
+    /**
+     * Fills masks of all subsets of five cards (bit N of a subset index = N-th card).
+     */
+    private static void fillSubsets(int[] ids, long[] subsets) {
+        subsets[0] = 0;
+        for (int p = 1; p < HoldSolver.PATTERNS; p++) {
+            subsets[p] = subsets[p & (p - 1)] | 1L << ids[Integer.numberOfTrailingZeros(p)];
+        }
+    }
+
+    /**
+     * Gets a number of canonical hands.
+     */
+    int getClassCount() {
+        return classes.length;
+    }
+
+    /**
+     * Computes the return of a pay table.
+     *
+     * @param payouts  payout of every category of the variant, including the bet
+     * @param bet      bet the pay table is made for
+     * @param listener receives progress from worker threads, or null
+     */
+    Report calculate(int[] payouts, int bet, ProgressListener listener) {
+        if (bet <= 0) {
+            throw new IllegalArgumentException("Bet should be positive.");
+        }
+        if (payouts.length != categoryCount) {
+            throw new IllegalArgumentException("Pay table doesn't match variant " + variant.getName());
+        }
+        double[] pays = new double[categoryCount];
+        for (int c = 0; c < categoryCount; c++) {
+            pays[c] = (double) payouts[c] / bet;
+        }
+        double[] sums = ForkJoinPool.commonPool().invoke(
+                new ClassTask(pays, 0, classes.length, new AtomicInteger(), listener));
+        double rtp = sums[0] / HandTable.HANDS;
+        double variance = sums[1] / HandTable.HANDS - rtp * rtp;
+        double[] hitFrequencies = new double[categoryCount];
+        for (int c = 0; c < categoryCount; c++) {
+            hitFrequencies[c] = sums[2 + c] / HandTable.HANDS;
+        }
+        return new Report(variant, rtp, variance, hitFrequencies);
+    }
+
+    /**
+     * Solves one canonical hand and adds its weighted results to sums.
+     *
+     * @param counts scratch array for final hand counts of every hold pattern
+     * @param sums   [expected return, expected squared return, probability of every category]
+     */
+    private void solve(int i, double[] pays, long[] subsets, int[] counts, double[] sums) {
+        long mask = classes[i];
+        int[] ids = new int[HandEvaluator.HAND_SIZE];
+        for (int n = 0; n < ids.length; n++, mask &= mask - 1) {
+            ids[n] = Long.numberOfTrailingZeros(mask);
+        }
+        fillSubsets(ids, subsets);
+        for (int p = 0; p < ALL_HELD; p++) {
+            int index = HandTable.subsetIndex(subsets[p]);
+            System.arraycopy(subsetCounts[Integer.bitCount(p)], index * categoryCount,
+                    counts, p * categoryCount, categoryCount);
+        }
+        Arrays.fill(counts, ALL_HELD * categoryCount, HoldSolver.PATTERNS * categoryCount, 0);
+        counts[ALL_HELD * categoryCount + categories.get(HandTable.index(subsets[ALL_HELD]))] = 1;
+        // hands containing the held cards and none of the discarded ones
+        for (int bit = 1; bit < HoldSolver.PATTERNS; bit <<= 1) {
+            for (int p = 0; p < HoldSolver.PATTERNS; p++) {
+                if ((p & bit) == 0) {
+                    int to = p * categoryCount;
+                    int from = (p | bit) * categoryCount;
+                    for (int c = 0; c < categoryCount; c++) {
+                        counts[to + c] -= counts[from + c];
+                    }
+                }
+            }
+        }
+        int best = 0;
+        double bestValue = -1;
+        for (int p = 0; p < HoldSolver.PATTERNS; p++) {
+            double total = 0;
+            for (int c = 0; c < categoryCount; c++) {
+                total += counts[p * categoryCount + c] * pays[c];
+            }
+            double value = total / HoldSolver.drawCount(p);
+            if (value > bestValue) {
+                bestValue = value;
+                best = p;
+            }
+        }
+        double weight = (double) weights[i] / HoldSolver.drawCount(best);
+        for (int c = 0; c < categoryCount; c++) {
+            int count = counts[best * categoryCount + c];
+            sums[0] += weight * count * pays[c];
+            sums[1] += weight * count * pays[c] * pays[c];
+            sums[2 + c] += weight * count;
+        }
+    }
+
+    /**
+     * Receives calculation progress.
+     */
+    interface ProgressListener {
+
+        /**
+         * Called after a batch of canonical hands is solved.
+         *
+         * @param done  number of solved canonical hands
+         * @param total number of canonical hands
+         */
+        void progress(int done, int total);
+    }
+
+    /**
+     * Return of a pay table under the optimal strategy.
+     */
+    static final class Report {
+
+        private final Variant variant;
+        private final double rtp;
+        private final double variance;
+        private final double[] hitFrequencies;
+
+        Report(Variant variant, double rtp, double variance, double[] hitFrequencies) {
+            this.variant = variant;
+            this.rtp = rtp;
+            this.variance = variance;
+            this.hitFrequencies = hitFrequencies;
+        }
+
+        /**
+         * Gets the expected return per unit of bet.
+         */
+        double getRtp() {
+            return rtp;
+        }
+
+        /**
+         * Gets the variance of the return per unit of bet.
+         */
+        double getVariance() {
+            return variance;
+        }
+
+        double getStandardDeviation() {
+            return Math.sqrt(variance);
+        }
+
+        /**
+         * Gets a probability that a round ends with a hand of the category.
+         */
+        double getHitFrequency(int category) {
+            return hitFrequencies[category];
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder builder = new StringBuilder();
+            builder.append(variant.getName()).append(String.format("%n"));
+            builder.append(String.format("Return: %.6f%%%n", rtp * 100));
+            builder.append(String.format("Variance: %.4f (standard deviation %.4f)%n", variance, getStandardDeviation()));
+            for (int c = 0; c < hitFrequencies.length; c++) {
+                builder.append(String.format("%-28s %.8f (1 in %.1f)%n", variant.getCategoryName(c),
+                        hitFrequencies[c], 1 / hitFrequencies[c]));
+            }
+            return builder.toString();
+        }
+    }
+
+    /**
+     * Solves a range of canonical hands, splitting it in halves down to {@link #CHUNK}.
+     */
+    private final class ClassTask extends RecursiveTask<double[]> {
+
+        private final double[] pays;
+        private final int from;
+        private final int to;
+        private final AtomicInteger done;
+        private final ProgressListener listener;
+
+        ClassTask(double[] pays, int from, int to, AtomicInteger done, ProgressListener listener) {
+            this.pays = pays;
+            this.from = from;
+            this.to = to;
+            this.done = done;
+            this.listener = listener;
+        }
+
+        @Override
+        protected double[] compute() {
+            if (to - from > CHUNK) {
+                int middle = (from + to) >>> 1;
+                ClassTask left = new ClassTask(pays, from, middle, done, listener);
+                left.fork();
+                double[] sums = new ClassTask(pays, middle, to, done, listener).compute();
+                double[] leftSums = left.join();
+                for (int i = 0; i < sums.length; i++) {
+                    sums[i] += leftSums[i];
+                }
+                return sums;
+            }
+            double[] sums = new double[2 + categoryCount];
+            long[] subsets = new long[HoldSolver.PATTERNS];
+            int[] counts = new int[HoldSolver.PATTERNS * categoryCount];
+            for (int i = from; i < to; i++) {
+                solve(i, pays, subsets, counts, sums);
+            }
+            int solved = done.addAndGet(to - from);
+            if (listener != null) {
+                listener.progress(solved, classes.length);
+            }
+            return sums;
+        }
+    }
+
+    /**
+     * Prints returns of pay tables of all variants.
+     */
+    public static void main(String[] args) {
+        for (Variant variant : Variant.VARIANTS) {
+            RtpCalculator calculator = new RtpCalculator(variant);
+            Report report = calculator.calculate(variant.getPays(1), 1, new ProgressListener() {
+                @Override
+                public void progress(int done, int total) {
+                    System.out.print("\rSolved " + done + " of " + total + " hands");
+                }
+            });
+            System.out.println();
+            System.out.print(report);
+        }
+    }
+}
@@ -0,0 +1,242 @@
+package org.sillylossy.games.videopoker;
+
+import org.sillylossy.games.common.cards.Card;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Rules of a video poker variant: hand categories, their payouts and a classifier.
+ * <p>
+ * The classifier is only run to build a lookup table with a category of every five-card hand
+ * (by {@link HandTable#index(long) colex index}), so evaluation is one index computation and one load
+ * whatever the rules are, wild cards included. The table is generated on first use
+ * and saved to {@link #TABLE_DIR}; later runs memory-map it from there.
+ */
+abstract class Variant {
+
+    static final Variant JACKS_OR_BETTER = new JacksOrBetter();
+
+    static final Variant BONUS_POKER = new BonusPoker();
+
+    static final Variant DEUCES_WILD = new DeucesWild();
+
+    /**
+     * All variants, in order they are offered to a player.
+     */
+    static final Variant[] VARIANTS = {JACKS_OR_BETTER, BONUS_POKER, DEUCES_WILD};
+
+    /**
+     * Directory the lookup tables are saved to, in the user's home.
+     */
+    static final File TABLE_DIR = new File(System.getProperty("user.home"), ".java-games");
+
+    /**
+     * Table file header.
+     */
+    private static final int MAGIC = 0x56505632;
+
+    /**
+     * Size of the table file header in bytes.
+     */
+    private static final int HEADER_SIZE = 8;
+
+    private final String name;
+
+    private final String fileName;
+
+    /**
+     * Category names, from a losing hand (0) to the best one.
+     */
+    private final String[] categories;
+
+    /**
+     * Payout of every category for a unit bet (including the bet).
+     */
+    private final int[] multipliers;
+
+    /**
+     * Category of every hand by colex index, loaded on first use. Read with absolute gets only.
+     */
+    private volatile ByteBuffer table;
+
+    /**
+     * @param name        variant name shown to a player
+     * @param fileName    name of the file in {@link #TABLE_DIR} the lookup table is persisted to
+     * @param categories  category names, from a losing hand (0) to the best one
+     * @param multipliers payout of every category for a unit bet
+     */
+    protected Variant(String name, String fileName, String[] categories, int[] multipliers) {
+        if (categories.length != multipliers.length) {
+            throw new IllegalArgumentException("Every category should have a payout.");
+        }
+        this.name = name;
+        this.fileName = fileName;
+        this.categories = categories;
+        this.multipliers = multipliers;
+    }
+
+    /**
+     * Classifies five distinct cards given by IDs. Used only to generate the lookup table.
+     *
+     * @return category index
+     */
+    protected abstract int classify(int c0, int c1, int c2, int c3, int c4);
+
+    /**
+     * Gets a category of a hand.
+     *
+     * @param mask mask of five cards
+     */
+    int category(long mask) {
+        return getTable().get(HandTable.index(mask));
+    }
+
+    /**
+     * Gets a category of five cards.
+     */
+    int evaluate(Card[] cards) {
+        long mask = 0;
+        for (Card card : cards) {
+            mask |= 1L << card.getId();
+        }
+        return category(mask);
+    }
+
+    /**
+     * Evaluates a batch of hands given by card IDs, five IDs per hand.
+     *
+     * @param ids   card IDs of all hands, hand N starts at index 5N
+     * @param hands number of hands
+     * @param out   receives category of every hand
+     */
+    void evaluate(int[] ids, int hands, byte[] out) {
+        ByteBuffer categories = getTable();
+        for (int h = 0, i = 0; h < hands; h++, i += HandEvaluator.HAND_SIZE) {
+            long mask = 1L << ids[i] | 1L << ids[i + 1] | 1L << ids[i + 2] | 1L << ids[i + 3] | 1L << ids[i + 4];
+            out[h] = categories.get(HandTable.index(mask));
+        }
+    }
+
+    /**
+     * Gets payouts of every category for a bet.
+     */
+    int[] getPays(int bet) {
+        int[] pays = new int[multipliers.length];
+        for (int i = 0; i < pays.length; i++) {
+            pays[i] = multipliers[i] * bet;
+        }
+        return pays;
+    }
+
+    int getCategoryCount() {
+        return categories.length;
+    }
+
+    String getCategoryName(int category) {
+        return categories[category];
+    }
+
+    String getName() {
+        return name;
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+
+    /**
+     * Gets a lookup table, loading or generating it on first use.
+     */
+    ByteBuffer getTable() {
+        ByteBuffer t = table;
+        if (t == null) {
+            synchronized (this) {
+                t = table;
+                if (t == null) {
+                    t = loadOrGenerate(new File(TABLE_DIR, fileName));
+                    table = t;
+                }
+            }
+        }
+        return t;
+    }
+
+    /**
+     * Maps a table from file or generates, saves and maps it if the file is missing or damaged.
+     * If the table can't be saved, the generated one is used from the heap.
+     */
+    ByteBuffer loadOrGenerate(File file) {
+        try {
+            if (file.isFile()) {
+                return load(file);
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        byte[] t = generate();
+        try {
+            save(file, t);
+            return load(file);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        return ByteBuffer.wrap(t).asReadOnlyBuffer();
+    }
+
+    /**
+     * Memory-maps a table from file.
+     */
+    ByteBuffer load(File file) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r");
+             FileChannel channel = raf.getChannel()) {
+            if (channel.size() != HEADER_SIZE + HandTable.HANDS) {
+                throw new IOException("Table doesn't match variant " + name + ": " + file);
+            }
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.getInt() != MAGIC || buffer.getInt() != categories.length) {
+                throw new IOException("Table doesn't match variant " + name + ": " + file);
+            }
+            return buffer.slice();
+        }
+    }
+
+    private void save(File file, byte[] t) throws IOException {
+        File dir = file.getParentFile();
+        if (dir != null && !dir.isDirectory() && !dir.mkdirs()) {
+            throw new IOException("Can't create directory " + dir);
+        }
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(categories.length);
+            out.write(t);
+        }
+    }
+
+    /**
+     * Generates a table classifying every hand.
+     */
+    byte[] generate() {
+        byte[] t = new byte[HandTable.HANDS];
+        for (int a = 0; a < Card.COUNT; a++) {
+            for (int b = a + 1; b < Card.COUNT; b++) {
+                for (int c = b + 1; c < Card.COUNT; c++) {
+                    for (int d = c + 1; d < Card.COUNT; d++) {
+                        for (int e = d + 1; e < Card.COUNT; e++) {
+                            long mask = 1L << a | 1L << b | 1L << c | 1L << d | 1L << e;
+                            t[HandTable.index(mask)] = (byte) classify(a, b, c, d, e);
+                        }
+                    }
+                }
+            }
+        }
+        return t;
+    }
+}
@@ -2,34 +2,89 @@ package org.sillylossy.games.videopoker;
 
 import org.sillylossy.games.common.Main;
 import org.sillylossy.games.common.cards.Card;
-import org.sillylossy.games.common.cards.CardRank;
 import org.sillylossy.games.common.cards.Deck;
 import org.sillylossy.games.common.game.CardGame;
 import org.sillylossy.games.common.game.StatEvent;
-import org.sillylossy.games.videopoker.PokerCombinations.Combination;
 
-import java.util.EnumMap;
-import java.util.Map;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.Future;
 
 public class VideoPokerGame extends CardGame {
 
     public static final String GAME_NAME = "Video poker";
 
-    private Map<Combination, Integer> payTable;
+    /**
+     * Maximum number of solved hands kept in the hold cache.
+     */
+    private static final int HOLD_CACHE_SIZE = 4096;
 
-    private Map<Combination, Integer> createPayTable(int bet) {
-        Map<Combination, Integer> table = new EnumMap<>(Combination.class);
-        table.put(Combination.OTHER, 0);
-        table.put(Combination.ONE_PAIR, bet);
-        table.put(Combination.TWO_PAIR, bet * 2);
-        table.put(Combination.THREE_CARDS, bet * 3);
-        table.put(Combination.STRAIGHT, bet * 4);
-        table.put(Combination.FLUSH, bet * 6);
-        table.put(Combination.FULL_HOUSE, bet * 9);
-        table.put(Combination.FOUR_CARDS, bet * 25);
-        table.put(Combination.STRAIGHT_FLUSH, bet * 50);
-        table.put(Combination.ROYAL_FLUSH, bet * 250);
-        return table;
+    /**
+     * Solved hold values shared by all game instances.
+     */
+    private static final HoldCache holdCache = new HoldCache(HOLD_CACHE_SIZE);
+
+    /**
+     * Numbers of hands a player can play at once.
+     */
+    static final int[] HAND_COUNTS = {1, 3, 10, 100};
+
+    /**
+     * Variant selected for next rounds.
+     */
+    private Variant selectedVariant = Variant.JACKS_OR_BETTER;
+
+    /**
+     * Variant of the current round.
+     */
+    private Variant variant = selectedVariant;
+
+    /**
+     * Payouts of the current round indexed by category of the variant.
+     */
+    private int[] pays;
+
+    /**
+     * Number of hands selected for next rounds.
+     */
+    private int handCount = 1;
+
+    /**
+     * Number of hands played in the current round.
+     */
+    private int roundHands = 1;
+
+    /**
+     * Hands played in addition to the dealt one.
+     */
+    private final MultiPlay extraHands = new MultiPlay();
+
+    /**
+     * Expected payouts of hold patterns of the dealt hand, computed in background.
+     */
+    private ForkJoinTask<double[]> holdValues;
+
+    /**
+     * Expected value lost by the last hold decision compared to the optimal hold.
+     */
+    private double lastEvLoss;
+
+    /**
+     * Expected value lost by all hold decisions.
+     */
+    private double totalEvLoss;
+
+    /**
+     * Starts loading the lookup table in background, so the first hint doesn't wait for it.
+     */
+    public VideoPokerGame() {
+        Thread loader = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                Variant.JACKS_OR_BETTER.getTable();
+            }
+        }, "Variant-loader");
+        loader.setDaemon(true);
+        loader.start();
     }
 
     @Override
@@ -43,62 +98,22 @@ public class VideoPokerGame extends CardGame {
     }
 
     public String getResult() {
-        String result = "";
-        final CardRank MIN_CARD = CardRank.JACK;
-        int pay = 0;
-        Card[] cards = getPlayer().getHand().getCards();
-        PokerCombinations combinations = PokerCombinations.getCombinations(cards, MIN_CARD);
-        StatEvent statEvent = StatEvent.LOST;
-        switch (combinations.getBestCombination()) {
-            case OTHER:
-                result = PokerCombinations.toString(Combination.OTHER) + ". You've lost your bet";
-                statEvent = StatEvent.LOST;
-                break;
-            case ONE_PAIR:
-                pay = payTable.get(Combination.ONE_PAIR);
-                result = PokerCombinations.toString(Combination.ONE_PAIR) + ". You keep your bet";
-                statEvent = StatEvent.DRAW;
-                break;
-            case TWO_PAIR:
-                pay = payTable.get(Combination.TWO_PAIR);
-                result = PokerCombinations.toString(Combination.TWO_PAIR) + ". You've won " + pay + "$";
-                statEvent = StatEvent.WON;
-                break;
-            case THREE_CARDS:
-                pay = payTable.get(Combination.THREE_CARDS);
-                result = PokerCombinations.toString(Combination.THREE_CARDS) + ". You've won " + pay + "$";
-                statEvent = StatEvent.WON;
-                break;
-            case STRAIGHT:
-                pay = payTable.get(Combination.STRAIGHT);
-                result = PokerCombinations.toString(Combination.STRAIGHT) + ". You've won " + pay + "$";
-                statEvent = StatEvent.WON;
-                break;
-            case FLUSH:
-                pay = payTable.get(Combination.FLUSH);
-                result = PokerCombinations.toString(Combination.FLUSH) + ". You've won " + pay + "$";
-                statEvent = StatEvent.WON;
-                break;
-            case FULL_HOUSE:
-                pay = payTable.get(Combination.FOUR_CARDS);
-                result = PokerCombinations.toString(Combination.FULL_HOUSE) + ". You've won " + pay + "$";
-                statEvent = StatEvent.WON;
-                break;
-            case FOUR_CARDS:
-                pay = payTable.get(Combination.FOUR_CARDS);
-                result = PokerCombinations.toString(Combination.FOUR_CARDS) + ". You've won " + pay + "$";
-                statEvent = StatEvent.WON;
-                break;
-            case STRAIGHT_FLUSH:
-                pay = payTable.get(Combination.STRAIGHT_FLUSH);
-                result = PokerCombinations.toString(Combination.STRAIGHT_FLUSH) + ". You've won " + pay + "$";
-                statEvent = StatEvent.WON;
-                break;
-            case ROYAL_FLUSH:
-                pay = payTable.get(Combination.ROYAL_FLUSH);
-                result = PokerCombinations.toString(Combination.ROYAL_FLUSH) + ". You've won " + pay + "$";
-                statEvent = StatEvent.WON;
-                break;
+        int category = variant.evaluate(getPlayer().getHand().getCards());
+        int pay = pays[category];
+        String result = getHandResult(category, pay);
+        int stake = player.getBet();
+        if (extraHands.getCount() > 0) {
+            pay += extraHands.getPayout(pays);
+            stake *= roundHands;
+            result += " " + getExtraHandsResult(pay);
+        }
+        StatEvent statEvent;
+        if (pay > stake) {
+            statEvent = StatEvent.WON;
+        } else if (pay == stake) {
+            statEvent = StatEvent.DRAW;
+        } else {
+            statEvent = StatEvent.LOST;
         }
         Main.getGameController().addStatEvent(player, statEvent);
         player.increaseScore(pay);
@@ -107,8 +122,37 @@ public class VideoPokerGame extends CardGame {
         return result;
     }
 
+    /**
+     * Gets a result message of the dealt hand.
+     */
+    private String getHandResult(int category, int pay) {
+        String name = variant.getCategoryName(category);
+        if (pay == 0) {
+            return name + ". You've lost your bet";
+        } else if (pay == player.getBet()) {
+            return name + ". You keep your bet";
+        } else {
+            return name + ". You've won " + pay + "$";
+        }
+    }
+
+    /**
+     * Gets a result message of extra hands: total payout and number of hands of every paying category.
+     */
+    private String getExtraHandsResult(int totalPay) {
+        StringBuilder builder = new StringBuilder();
+        builder.append("| ").append(roundHands).append(" hands paid ").append(totalPay).append("$");
+        int[] counts = extraHands.getCategoryCounts(variant.getCategoryCount());
+        for (int i = counts.length - 1; i > 0; i--) {
+            if (counts[i] > 0) {
+                builder.append(", ").append(variant.getCategoryName(i)).append(" x").append(counts[i]);
+            }
+        }
+        return builder.toString();
+    }
+
     void discard() {
-        player.increaseScore(player.getBet());
+        player.increaseScore(player.getBet() * roundHands);
         reset();
     }
 
@@ -116,6 +160,7 @@ public class VideoPokerGame extends CardGame {
     public void reset() {
         player.getHand().clear();
         player.setBet(0);
+        extraHands.clear();
     }
 
     @Override
@@ -125,24 +170,99 @@ public class VideoPokerGame extends CardGame {
         for (int i = 0; i < POKER_CARDS; i++) {
             player.getHand().addCard(deck.draw());
         }
+        holdValues = holdCache.solveAsync(player.getHand().getCards(), variant, pays);
     }
 
     @Override
     public void betAction(int bet) {
+        int hands = getRoundHandCount();
+        if (bet <= 0 || (long) bet * hands > player.getScore()) {
+            throw new IllegalArgumentException("Bet of " + hands + " x " + bet + "$ is not covered by the score.");
+        }
+        roundHands = hands;
+        variant = selectedVariant;
         player.setBet(bet);
-        payTable = createPayTable(bet);
-        player.decreaseScore(bet);
+        pays = variant.getPays(bet);
+        player.decreaseScore(bet * roundHands);
         dealCards();
     }
 
+    /**
+     * Gets a maximum bet per hand.
+     */
     @Override
     public int getMaxBet() {
-        return player.getScore();
+        return player.getScore() / getRoundHandCount();
     }
 
+    /**
+     * Gets a minimum bet per hand.
+     */
     @Override
     public int getMinBet() {
-        return player.getScore() / 50;
+        return player.getScore() / 50 / getRoundHandCount();
+    }
+
+    /**
+     * Gets a number of hands the next round is played with: the selected number, lowered to the greatest
+     * one the score covers with a bet of 1$.
+     */
+    int getRoundHandCount() {
+        int hands = HAND_COUNTS[0];
+        for (int count : HAND_COUNTS) {
+            if (count <= handCount && count <= player.getScore()) {
+                hands = count;
+            }
+        }
+        return hands;
+    }
+
+    /**
+     * Selects a number of hands played in next rounds.
+     *
+     * @param handCount one of {@link #HAND_COUNTS}
+     */
+    void setHandCount(int handCount) {
+        for (int count : HAND_COUNTS) {
+            if (count == handCount) {
+                this.handCount = handCount;
+                return;
+            }
+        }
+        throw new IllegalArgumentException("Unsupported number of hands: " + handCount);
+    }
+
+    int getHandCount() {
+        return handCount;
+    }
+
+    /**
+     * Selects a variant played in next rounds.
+     */
+    void setVariant(Variant variant) {
+        if (variant == null) {
+            throw new IllegalArgumentException("Variant should not be null.");
+        }
+        selectedVariant = variant;
+    }
+
+    /**
+     * Gets a variant of the current round.
+     */
+    Variant getVariant() {
+        return variant;
+    }
+
+    /**
+     * Plays extra hands of a multi-play round. Should be called before replacing cards of the dealt hand.
+     *
+     * @param pattern hold pattern (bit N set = N-th dealt card held)
+     */
+    void playExtraHands(int pattern) {
+        if (roundHands > 1) {
+            extraHands.play(player.getHand().getCards(), pattern, deck, roundHands - 1,
+                    Deck.getDefaultSource(), variant);
+        }
     }
 
     Card changeCard(Card card) {
@@ -151,8 +271,46 @@ public class VideoPokerGame extends CardGame {
         return newCard;
     }
 
-    Map<Combination, Integer> getPayTable() {
-        return payTable;
+    /**
+     * Gets payouts of the current round indexed by category of the variant.
+     */
+    int[] getPays() {
+        return pays;
+    }
+
+    /**
+     * Gets expected payouts of all hold patterns of the dealt hand (bit N set = N-th card held).
+     * They are computed in background; waiting for them should not be done on the EDT.
+     */
+    Future<double[]> getHoldValues() {
+        return holdValues;
+    }
+
+    /**
+     * Records a hold decision of the player.
+     *
+     * @param values  expected payouts of hold patterns (see {@link #getHoldValues()})
+     * @param pattern hold pattern (bit N set = N-th dealt card held)
+     * @return expected value lost compared to the optimal hold
+     */
+    double recordHold(double[] values, int pattern) {
+        lastEvLoss = values[HoldSolver.bestHold(values)] - values[pattern];
+        totalEvLoss += lastEvLoss;
+        return lastEvLoss;
+    }
+
+    /**
+     * Gets expected value lost by the last hold decision.
+     */
+    double getLastEvLoss() {
+        return lastEvLoss;
+    }
+
+    /**
+     * Gets expected value lost by all hold decisions in this game.
+     */
+    double getTotalEvLoss() {
+        return totalEvLoss;
     }
 }
 
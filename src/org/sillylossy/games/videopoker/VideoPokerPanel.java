@@ -13,18 +13,27 @@ import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
-
-import static org.sillylossy.games.videopoker.PokerCombinations.Combination;
+import java.util.concurrent.Future;
 
 public class VideoPokerPanel extends CardPanel {
 
     private static final String PLAY_BUTTON_TEXT = "Play";
 
+    /**
+     * Expected value differences below this are treated as zero.
+     */
+    private static final double EV_EPSILON = 1e-9;
+
     private final JButton btnPlay = new JButton();
 
     private final JButton btnDiscard = new JButton("Discard");
 
+    private final JButton btnHint = new JButton("Hint");
+
+    private final JComboBox<String> cmbHands = new JComboBox<>();
+
+    private final JComboBox<Variant> cmbVariants = new JComboBox<>(Variant.VARIANTS);
+
     private final List<CardImage> cardImages = new ArrayList<>();
 
     private final JPanel cardsPanel = new JPanel();
@@ -34,6 +43,11 @@ public class VideoPokerPanel extends CardPanel {
     private final JScrollPane payTablePane = new JScrollPane(payTable);
 
     private final JLabel lblHint = createLabel("Click on cards you want to replace");
+
+    /**
+     * Number of rounds shown by the panel. Background results of an older round are not shown.
+     */
+    private int round;
     private final ActionListener newGameButtonListener = new ActionListener() {
         @Override
         public void actionPerformed(ActionEvent e) {
@@ -43,11 +57,15 @@ public class VideoPokerPanel extends CardPanel {
             btnPlay.setText(PLAY_BUTTON_TEXT);
             btnPlay.addActionListener(playButtonListener);
             btnDiscard.setEnabled(true);
+            btnHint.setEnabled(true);
         }
     };
     private final ActionListener playButtonListener = new ActionListener() {
         @Override
         public void actionPerformed(ActionEvent e) {
+            int pattern = getHoldPattern();
+            recordHold(getGame().getHoldValues(), pattern);
+            getGame().playExtraHands(pattern);
             for (CardImage image : cardImages) {
                 if (image.isFlipped()) {
                     image.setCard(getGame().changeCard(image.getCard()));
@@ -73,14 +91,39 @@ public class VideoPokerPanel extends CardPanel {
         return (VideoPokerGame) Main.getGame();
     }
 
+    /**
+     * Gets a hold pattern selected by the player: bit N is set when N-th card is not flipped.
+     */
+    private int getHoldPattern() {
+        int pattern = 0;
+        for (int i = 0; i < cardImages.size(); i++) {
+            if (!cardImages.get(i).isFlipped()) {
+                pattern |= 1 << i;
+            }
+        }
+        return pattern;
+    }
+
+    /**
+     * Flips cards so that only cards of the hold pattern stay face up.
+     */
+    private void showHold(int pattern) {
+        for (int i = 0; i < cardImages.size(); i++) {
+            CardImage image = cardImages.get(i);
+            boolean held = (pattern & (1 << i)) != 0;
+            if (image.isFlipped() == held) {
+                image.flip();
+            }
+        }
+    }
+
     private DefaultTableModel createTableModel() {
-        Object[][] vector = new Object[Combination.values().length][2];
-        Map<PokerCombinations.Combination, Integer> table = getGame().getPayTable();
-        int i = 0;
-        for (Combination value : Combination.values()) {
-            vector[i][0] = PokerCombinations.toString(value);
-            vector[i][1] = table.get(value);
-            ++i;
+        Variant variant = getGame().getVariant();
+        int[] pays = getGame().getPays();
+        Object[][] vector = new Object[variant.getCategoryCount()][2];
+        for (int i = 0; i < vector.length; i++) {
+            vector[i][0] = variant.getCategoryName(i);
+            vector[i][1] = pays[i];
         }
         return new DefaultTableModel(vector, new String[]{"Combination", "Payout"});
     }
@@ -104,8 +147,35 @@ public class VideoPokerPanel extends CardPanel {
         }
     }
 
+    /**
+     * Waits for hold values off the EDT, records the hold decision and, if the round is still shown,
+     * tells how much the hold lost compared to the optimal one.
+     */
+    private void recordHold(final Future<double[]> holdValues, final int pattern) {
+        final int shownRound = round;
+        new SwingWorker<double[], Void>() {
+            @Override
+            protected double[] doInBackground() throws Exception {
+                return holdValues.get();
+            }
+
+            @Override
+            protected void done() {
+                try {
+                    double evLoss = getGame().recordHold(get(), pattern);
+                    if (round == shownRound && evLoss > EV_EPSILON) {
+                        lblHint.setText(String.format("%s (optimal hold was worth %.2f$ more)", lblHint.getText(), evLoss));
+                    }
+                } catch (Exception ex) {
+                    ex.printStackTrace();
+                }
+            }
+        }.execute();
+    }
+
     @Override
     public void clear() {
+        ++round;
         cardImages.clear();
         setActionButtons(false);
         cardsPanel.removeAll();
@@ -122,6 +192,12 @@ public class VideoPokerPanel extends CardPanel {
 
     @Override
     public void start() {
+        int hands = getGame().getRoundHandCount();
+        for (int i = 0; i < VideoPokerGame.HAND_COUNTS.length; i++) {
+            if (VideoPokerGame.HAND_COUNTS[i] == hands) {
+                cmbHands.setSelectedIndex(i);
+            }
+        }
         flipToBets();
     }
 
@@ -132,12 +208,16 @@ public class VideoPokerPanel extends CardPanel {
         btnPlay.removeActionListener(playButtonListener);
         btnPlay.addActionListener(newGameButtonListener);
         btnDiscard.setEnabled(false);
+        btnHint.setEnabled(false);
     }
 
     @Override
     protected void setActionButtons(boolean b) {
         btnPlay.setVisible(b);
         btnDiscard.setVisible(b);
+        btnHint.setVisible(b);
+        cmbHands.setVisible(b);
+        cmbVariants.setVisible(b);
         payTablePane.setVisible(b);
         lblHint.setVisible(b);
         cardsPanel.setVisible(b);
@@ -149,8 +229,29 @@ public class VideoPokerPanel extends CardPanel {
         btnDiscard.addActionListener(new DiscardButtonAction());
         btnPlay.addActionListener(playButtonListener);
         btnPlay.setText(PLAY_BUTTON_TEXT);
+        btnHint.addActionListener(new HintButtonAction());
         actions.add(btnPlay);
         actions.add(btnDiscard);
+        actions.add(btnHint);
+        for (int count : VideoPokerGame.HAND_COUNTS) {
+            cmbHands.addItem(count == 1 ? "1 hand" : count + " hands");
+        }
+        cmbHands.setToolTipText("Number of hands played in next rounds");
+        cmbHands.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                getGame().setHandCount(VideoPokerGame.HAND_COUNTS[cmbHands.getSelectedIndex()]);
+            }
+        });
+        actions.add(cmbHands);
+        cmbVariants.setToolTipText("Variant played in next rounds");
+        cmbVariants.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                getGame().setVariant((Variant) cmbVariants.getSelectedItem());
+            }
+        });
+        actions.add(cmbVariants);
         return actions;
     }
 
@@ -167,6 +268,42 @@ public class VideoPokerPanel extends CardPanel {
             cardsPanel.add(image.getLabel());
         }
         payTable.setModel(createTableModel());
+        btnDiscard.setEnabled(true);
+        btnHint.setEnabled(true);
+    }
+
+    /**
+     * "Hint" button action listener. Waits for the hold solver off the EDT and then shows the optimal hold.
+     */
+    private class HintButtonAction implements ActionListener {
+        @Override
+        public void actionPerformed(ActionEvent e) {
+            btnHint.setEnabled(false);
+            final int shownRound = round;
+            final Future<double[]> holdValues = getGame().getHoldValues();
+            new SwingWorker<double[], Void>() {
+                @Override
+                protected double[] doInBackground() throws Exception {
+                    return holdValues.get();
+                }
+
+                @Override
+                protected void done() {
+                    if (round != shownRound || !btnDiscard.isEnabled()) {
+                        return;
+                    }
+                    try {
+                        double[] values = get();
+                        int best = HoldSolver.bestHold(values);
+                        showHold(best);
+                        lblHint.setText(String.format("Optimal hold is face up. Expected return: %.2f$", values[best]));
+                    } catch (Exception ex) {
+                        ex.printStackTrace();
+                    }
+                    btnHint.setEnabled(true);
+                }
+            }.execute();
+        }
     }
 
     private class DiscardButtonAction implements ActionListener {
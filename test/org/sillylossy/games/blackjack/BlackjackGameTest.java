@@ -0,0 +1,277 @@
+package org.sillylossy.games.blackjack;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.sillylossy.games.common.cards.Card;
+import org.sillylossy.games.common.cards.CardRank;
+import org.sillylossy.games.common.cards.CardSuit;
+import org.sillylossy.games.common.cards.Shoe;
+import org.sillylossy.games.common.cards.ShuffleSource;
+import org.sillylossy.games.common.players.Player;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+public class BlackjackGameTest {
+
+    /**
+     * Reference value of cards: every ace is 11 until the hand busts.
+     */
+    private static int referenceValue(List<Card> cards) {
+        int value = 0;
+        int elevens = 0;
+        for (Card card : cards) {
+            int rank = card.getRankIndex();
+            if (card.getCardRank() == CardRank.ACE) {
+                value += 11;
+                elevens++;
+            } else {
+                value += Math.min(rank + 2, 10);
+            }
+        }
+        while (value > 21 && elevens > 0) {
+            value -= 10;
+            elevens--;
+        }
+        return value;
+    }
+
+    /**
+     * Reference dealer outcomes by plain recursion over the cards drawn.
+     */
+    private static void dealerOutcomes(BlackjackHand hand, int[] shoe, double p, double[] out) {
+        if (hand.isBust()) {
+            out[DealerProbabilities.BUST] += p;
+            return;
+        }
+        if (hand.value() >= Dealer.STOP_VALUE) {
+            out[hand.isBlackjack() ? DealerProbabilities.BLACKJACK : hand.value() - Dealer.STOP_VALUE] += p;
+            return;
+        }
+        int total = 0;
+        for (int count : shoe) {
+            total += count;
+        }
+        for (int i = 0; i < shoe.length; i++) {
+            if (shoe[i] > 0) {
+                double q = p * shoe[i] / total;
+                shoe[i]--;
+                Card card = Card.byId(i == 0 ? Card.RANKS - 1 : i - 1);
+                hand.addCard(card);
+                dealerOutcomes(hand, shoe, q, out);
+                hand.removeCard(card);
+                shoe[i]++;
+            }
+        }
+    }
+
+    @Test
+    public void testHandValueMatchesRecount() throws Exception {
+        Random random = new Random(17);
+        BlackjackHand hand = new BlackjackHand();
+        List<Card> cards = new ArrayList<>();
+        for (int round = 0; round < 10000; round++) {
+            hand.clear();
+            cards.clear();
+            int size = 1 + random.nextInt(8);
+            for (int i = 0; i < size; i++) {
+                Card card = Card.byId(random.nextInt(Card.COUNT));
+                hand.addCard(card);
+                cards.add(card);
+                Assert.assertEquals(referenceValue(cards), hand.value());
+                Assert.assertEquals(referenceValue(cards) > 21, hand.isBust());
+            }
+            if (random.nextBoolean()) {
+                Card card = cards.remove(random.nextInt(cards.size()));
+                hand.removeCard(card);
+                Assert.assertEquals(referenceValue(cards), hand.value());
+            }
+        }
+    }
+
+    @Test
+    public void testSoftHandsAndBlackjack() throws Exception {
+        BlackjackHand hand = new BlackjackHand();
+        hand.addCard(Card.of(CardRank.ACE, CardSuit.SPADES));
+        hand.addCard(Card.of(CardRank.KING, CardSuit.HEARTS));
+        Assert.assertTrue(hand.isBlackjack());
+        Assert.assertTrue(hand.isSoft());
+        hand.addCard(Card.of(CardRank.ACE, CardSuit.CLUBS));
+        Assert.assertFalse(hand.isBlackjack());
+        Assert.assertFalse(hand.isSoft());
+        Assert.assertEquals(12, hand.value());
+        hand.clear();
+        hand.addCard(Card.of(CardRank.ACE, CardSuit.SPADES));
+        hand.addCard(Card.of(CardRank.SIX, CardSuit.HEARTS));
+        Assert.assertTrue(hand.isSoft());
+        Assert.assertEquals(17, hand.value());
+    }
+
+    @Test
+    public void testMultipleAcesValueOnlyOneAsEleven() throws Exception {
+        BlackjackHand hand = new BlackjackHand();
+        hand.addCard(Card.of(CardRank.ACE, CardSuit.SPADES));
+        hand.addCard(Card.of(CardRank.ACE, CardSuit.HEARTS));
+        Assert.assertEquals(12, hand.value());
+        Assert.assertTrue(hand.isSoft());
+        Assert.assertFalse(hand.isBlackjack());
+        hand.addCard(Card.of(CardRank.NINE, CardSuit.CLUBS));
+        Assert.assertEquals(21, hand.value());
+        Assert.assertTrue(hand.isSoft());
+        hand.addCard(Card.of(CardRank.KING, CardSuit.CLUBS));
+        Assert.assertEquals(21, hand.value());
+        Assert.assertFalse(hand.isSoft());
+        Assert.assertFalse(hand.isBust());
+        hand.clear();
+        for (CardSuit suit : CardSuit.values()) {
+            hand.addCard(Card.of(CardRank.ACE, suit));
+        }
+        Assert.assertEquals(14, hand.value());
+        hand.addCard(Card.of(CardRank.SEVEN, CardSuit.CLUBS));
+        Assert.assertEquals(21, hand.value());
+    }
+
+    @Test
+    public void testSimulationDoesNotDependOnThreads() throws Exception {
+        BlackjackSimulator.Report one = new BlackjackSimulator(6, 0.75, 1).run(Strategy.MIMIC_DEALER, 200000, 5);
+        BlackjackSimulator.Report two = new BlackjackSimulator(6, 0.75, 2).run(Strategy.MIMIC_DEALER, 200000, 5);
+        Assert.assertEquals(200000, one.getRounds());
+        Assert.assertEquals(one.getEv(), two.getEv(), 0);
+        long total = 0;
+        for (Outcome outcome : Outcome.values()) {
+            Assert.assertEquals(one.getCount(outcome), two.getCount(outcome));
+            total += one.getCount(outcome);
+        }
+        Assert.assertEquals(one.getRounds(), total);
+        Assert.assertEquals(0, one.getNetCount(-2));
+    }
+
+    @Test
+    public void testDealerProbabilitiesMatchRecursion() throws Exception {
+        DealerProbabilities probabilities = new DealerProbabilities(1);
+        int[] shoe = new int[DealerProbabilities.POINT_VALUES];
+        for (int i = 0; i < shoe.length; i++) {
+            shoe[i] = DealerProbabilities.fullCount(1, i);
+        }
+        shoe[9] -= 2;
+        shoe[3]--;
+        for (int up = 0; up < DealerProbabilities.POINT_VALUES; up++) {
+            shoe[up]--;
+            double[] actual = probabilities.getProbabilities(up, shoe);
+            double[] expected = new double[DealerProbabilities.OUTCOMES];
+            BlackjackHand hand = new BlackjackHand();
+            hand.addCard(Card.byId(up == 0 ? Card.RANKS - 1 : up - 1));
+            dealerOutcomes(hand, shoe, 1, expected);
+            double sum = 0;
+            for (int o = 0; o < expected.length; o++) {
+                Assert.assertEquals(expected[o], actual[o], 1e-12);
+                sum += actual[o];
+            }
+            Assert.assertEquals(1, sum, 1e-12);
+            shoe[up]++;
+        }
+    }
+
+    @Test
+    public void testBasicStrategyResourceIsCurrent() throws Exception {
+        BasicStrategy generated = BasicStrategy.generate(BlackjackGame.DECKS);
+        for (int up = 0; up < DealerProbabilities.POINT_VALUES; up++) {
+            for (int total = 4; total <= 21; total++) {
+                for (int d = 0; d < 2; d++) {
+                    Assert.assertEquals(generated.getAction(total, false, up, d == 1),
+                            BasicStrategy.DEFAULT.getAction(total, false, up, d == 1));
+                    Assert.assertEquals(generated.getAction(total, true, up, d == 1),
+                            BasicStrategy.DEFAULT.getAction(total, true, up, d == 1));
+                }
+            }
+        }
+        Assert.assertEquals(Strategy.Action.HIT, BasicStrategy.DEFAULT.getAction(16, false, 9, true));
+        Assert.assertEquals(Strategy.Action.STAND, BasicStrategy.DEFAULT.getAction(13, false, 1, true));
+        Assert.assertEquals(Strategy.Action.DOUBLE, BasicStrategy.DEFAULT.getAction(11, false, 5, true));
+        Assert.assertEquals(Strategy.Action.HIT, BasicStrategy.DEFAULT.getAction(11, false, 5, false));
+        Assert.assertEquals(Strategy.Action.STAND, BasicStrategy.DEFAULT.getAction(18, true, 6, true));
+    }
+
+    @Test
+    public void testCutCardComesOutAtPenetration() throws Exception {
+        Shoe full = new Shoe(1, 1, ShuffleSource.seeded(5));
+        for (int i = 1; i < full.size(); i++) {
+            full.drawId();
+            Assert.assertFalse(full.isCutCardReached());
+        }
+        full.drawId();
+        Assert.assertTrue(full.isCutCardReached());
+        Assert.assertEquals(0, full.cardsLeft());
+        Assert.assertTrue(full.shuffleIfNeeded());
+        Assert.assertEquals(full.size(), full.cardsLeft());
+
+        Shoe half = new Shoe(2, 0.5, ShuffleSource.seeded(5));
+        for (int i = 1; i < 52; i++) {
+            half.drawId();
+        }
+        Assert.assertFalse(half.isCutCardReached());
+        half.drawId();
+        Assert.assertTrue(half.isCutCardReached());
+    }
+
+    @Test
+    public void testCountersFollowShoe() throws Exception {
+        Shoe shoe = new Shoe(2, 1, ShuffleSource.seeded(3));
+        CardCounter hiLo = new CardCounter(CardCounter.HI_LO, 2);
+        CardCounter ko = new CardCounter(CardCounter.KO, 2);
+        shoe.addObserver(hiLo);
+        shoe.addObserver(ko);
+        Assert.assertEquals(0, hiLo.getRunningCount());
+        Assert.assertEquals(-8, ko.getRunningCount());
+        int count = 0;
+        for (int i = 1; i < shoe.size(); i++) {
+            count += CardCounter.HI_LO[Card.rankOf(shoe.drawId())];
+            Assert.assertEquals(count, hiLo.getRunningCount());
+            Assert.assertEquals(count * 52.0 / (shoe.size() - i), hiLo.getTrueCount(), 1e-9);
+        }
+        shoe.drawId();
+        Assert.assertEquals(0, hiLo.getRunningCount());
+        Assert.assertEquals(0, ko.getRunningCount());
+        shoe.shuffle();
+        Assert.assertEquals(-8, ko.getRunningCount());
+        Assert.assertEquals(0, ko.getDrawn());
+    }
+
+    @Test
+    public void testDoubleSettlesLikeStrategyModel() throws Exception {
+        BlackjackGame game = new BlackjackGame();
+        Player player = new Player("test");
+        game.setPlayer(player);
+        for (int round = 0; round < 500; round++) {
+            game.reset();
+            if (player.getScore() < 20) {
+                player.increaseScore(1000);
+            }
+            int before = player.getScore();
+            game.betAction(10);
+            if (game.getPlayerHand().isBlackjack()) {
+                game.settle();
+                continue;
+            }
+            Assert.assertNotNull(game.doubleAction());
+            Assert.assertEquals(before - 20, player.getScore());
+            game.getDealer().drawCards(game.getShoe());
+            Outcome outcome = game.settle();
+            BlackjackSimulator.Report report = new BlackjackSimulator.Report();
+            report.record(outcome, 10, 2);
+            Assert.assertEquals(player.getScore() - before, report.getEv() * 10, 0);
+            BlackjackHand hand = game.getPlayerHand();
+            BlackjackHand dealer = game.getDealer().getHand();
+            int expected;
+            if (hand.isBust() || dealer.isBlackjack()) {
+                expected = -2;
+            } else if (dealer.isBust() || hand.value() > dealer.value()) {
+                expected = 2;
+            } else {
+                expected = hand.value() == dealer.value() ? 0 : -2;
+            }
+            Assert.assertEquals(expected * 10, player.getScore() - before);
+        }
+    }
+}
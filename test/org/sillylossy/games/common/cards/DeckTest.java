@@ -0,0 +1,140 @@
+package org.sillylossy.games.common.cards;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+public class DeckTest {
+
+    @Test
+    public void testFairBoundedDrawsAreUniform() throws Exception {
+        FairShuffleSource source = new FairShuffleSource();
+        try {
+            for (int bound = 2; bound <= 7; bound++) {
+                int draws = 20000 * bound;
+                int[] counts = new int[bound];
+                for (int i = 0; i < draws; i++) {
+                    ++counts[source.nextInt(bound)];
+                }
+                double expected = (double) draws / bound;
+                double chiSquare = 0;
+                for (int count : counts) {
+                    chiSquare += (count - expected) * (count - expected) / expected;
+                }
+                // p < 1e-6 for up to 6 degrees of freedom
+                Assert.assertTrue("bound " + bound + ": " + chiSquare, chiSquare < 36);
+            }
+            Assert.assertTrue(source.getRejections() > 0);
+        } finally {
+            source.close();
+        }
+    }
+
+    @Test
+    public void testFairSourceCountsWholeWords() throws Exception {
+        FairShuffleSource source = new FairShuffleSource();
+        try {
+            int minBits = 0;
+            for (int i = 2; i <= Card.COUNT; i++) {
+                minBits += 32 - Integer.numberOfLeadingZeros(i - 1);
+            }
+            long shuffleBits = 0;
+            int[] cards = new int[Card.COUNT];
+            for (int s = 1; s <= 100; s++) {
+                long before = source.getBitsConsumed();
+                source.nextInt(3);
+                Assert.assertEquals(before + Long.SIZE, source.getBitsConsumed());
+                source.shuffle(cards, cards.length);
+                long last = source.getLastShuffleBits();
+                Assert.assertEquals(0, last % Long.SIZE);
+                Assert.assertTrue(last >= minBits);
+                shuffleBits += last;
+                Assert.assertEquals(s, source.getShuffles());
+                Assert.assertEquals(shuffleBits, source.getShuffleBits());
+                Assert.assertEquals(before + Long.SIZE + last, source.getBitsConsumed());
+            }
+            Assert.assertEquals(shuffleBits / 100.0, source.getAverageShuffleBits(), 1e-9);
+        } finally {
+            source.close();
+        }
+    }
+
+    @Test
+    public void testRingBufferLosesAndDuplicatesNothing() throws Exception {
+        final int threads = 4;
+        final int perProducer = 100000;
+        final RingBuffer<Integer> buffer = new RingBuffer<>(64);
+        final AtomicIntegerArray received = new AtomicIntegerArray(threads * perProducer);
+        final int[] taken = new int[threads];
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            final int producer = t;
+            workers.add(new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    for (int i = 0; i < perProducer; i++) {
+                        Integer item = producer * perProducer + i;
+                        while (!buffer.offer(item)) {
+                            Thread.yield();
+                        }
+                    }
+                }
+            }));
+            workers.add(new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    while (taken[producer] < perProducer) {
+                        Integer item = buffer.poll();
+                        if (item != null) {
+                            received.incrementAndGet(item);
+                            ++taken[producer];
+                        } else {
+                            Thread.yield();
+                        }
+                    }
+                }
+            }));
+        }
+        for (Thread worker : workers) {
+            worker.start();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        for (int i = 0; i < received.length(); i++) {
+            Assert.assertEquals(1, received.get(i));
+        }
+        Assert.assertNull(buffer.poll());
+        Assert.assertEquals(0, buffer.size());
+    }
+
+    @Test
+    public void testPoolCountsHitsAndMisses() throws Exception {
+        DeckPool pool = new DeckPool(4);
+        long deadline = System.currentTimeMillis() + 10000;
+        while (pool.getFullDecksReady() < 4 || pool.getShortDecksReady() < 4) {
+            Assert.assertTrue(System.currentTimeMillis() < deadline);
+            Thread.sleep(1);
+        }
+        pool.close();
+        Assert.assertEquals(Card.COUNT, pool.takeFullDeck().cardsLeft());
+        Assert.assertEquals(36, pool.takeShortDeck().cardsLeft());
+        Assert.assertEquals(2, pool.getHits());
+        Assert.assertEquals(0, pool.getMisses());
+        int taken = 2;
+        while (pool.takeFullDeck() != null) {
+            ++taken;
+        }
+        Assert.assertEquals(taken, pool.getHits());
+        Assert.assertEquals(1, pool.getMisses());
+        Assert.assertEquals((double) taken / (taken + 1), pool.getHitRate(), 1e-9);
+
+        pool.clear();
+        Assert.assertNull(pool.takeShortDeck());
+        Assert.assertEquals(2, pool.getMisses());
+        Assert.assertEquals(taken, pool.getHits());
+    }
+}
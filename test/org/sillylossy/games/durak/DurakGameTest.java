@@ -0,0 +1,377 @@
+package org.sillylossy.games.durak;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.sillylossy.games.common.cards.Card;
+import org.sillylossy.games.common.cards.CardSet;
+import org.sillylossy.games.common.cards.ShuffleSource;
+import org.sillylossy.games.common.cards.SplittableShuffleSource;
+import org.sillylossy.games.common.players.Player;
+
+import java.util.concurrent.Future;
+
+public class DurakGameTest {
+
+    private static int cardsInGame(DurakState state) {
+        return Long.bitCount(state.getHand(0)) + Long.bitCount(state.getHand(1)) + state.getDeckSize()
+                + state.getTableSize() + state.getDiscardSize();
+    }
+
+    @Test
+    public void testRandomGamesEndAndKeepCards() throws Exception {
+        SplittableShuffleSource source = ShuffleSource.seeded(11);
+        int[] moves = new int[DurakState.MAX_MOVES];
+        for (int game = 0; game < 2000; game++) {
+            DurakState state = DurakState.deal(source, game % 2);
+            int plies = 0;
+            while (!state.isOver()) {
+                int count = state.getMoves(moves);
+                Assert.assertTrue(count > 0);
+                state.apply(moves[source.nextInt(count)]);
+                Assert.assertEquals(DurakState.DECK_SIZE, cardsInGame(state));
+                Assert.assertTrue(++plies < 1000);
+            }
+        }
+    }
+
+    /**
+     * Reference legality of a card move by the rules, card by card.
+     */
+    private static boolean isLegal(DurakState state, int card) {
+        int mover = state.toMove();
+        if ((state.getHand(mover) & 1L << card) == 0) {
+            return false;
+        }
+        long attacks = state.getAttacks();
+        long table = attacks | state.getDefenses();
+        if (mover != state.getAttacker()) {
+            int attack = state.getLastAttack();
+            int trump = state.getTrumpSuit();
+            return Card.suitOf(card) == Card.suitOf(attack) ? Card.rankOf(card) > Card.rankOf(attack)
+                    : Card.suitOf(card) == trump;
+        }
+        if (table == 0) {
+            return true;
+        }
+        int unbeaten = Long.bitCount(attacks) - Long.bitCount(state.getDefenses());
+        if (Long.bitCount(attacks) >= DurakState.MAX_ATTACKS
+                || unbeaten >= Long.bitCount(state.getHand(1 - state.getAttacker()))) {
+            return false;
+        }
+        for (int other = 0; other < Card.COUNT; other++) {
+            if ((table & 1L << other) != 0 && Card.rankOf(other) == Card.rankOf(card)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Test
+    public void testMoveMasksMatchRules() throws Exception {
+        SplittableShuffleSource source = ShuffleSource.seeded(7);
+        int[] moves = new int[DurakState.MAX_MOVES];
+        for (int game = 0; game < 300; game++) {
+            DurakState state = DurakState.deal(source, game % 2);
+            while (!state.isOver()) {
+                long cards = state.cardMoves();
+                for (int card = 0; card < Card.COUNT; card++) {
+                    Assert.assertEquals(isLegal(state, card), (cards & 1L << card) != 0);
+                }
+                int count = state.getMoves(moves);
+                DurakState copy = state.copy();
+                state.apply(moves[source.nextInt(count)]);
+                Assert.assertEquals(cards, copy.cardMoves());
+            }
+        }
+    }
+
+    /**
+     * Reference value of a position for the player to move by plain minimax.
+     */
+    private static int minimax(DurakState state) {
+        int mover = state.toMove();
+        if (state.isOver()) {
+            return (int) Math.round(2 * state.getScore(mover)) - 1;
+        }
+        int[] moves = new int[DurakState.MAX_MOVES];
+        int count = state.getMoves(moves);
+        int best = -1;
+        for (int i = 0; i < count; i++) {
+            DurakState child = state.copy();
+            child.apply(moves[i]);
+            int value = child.toMove() == mover ? minimax(child) : -minimax(child);
+            best = Math.max(best, value);
+        }
+        return best;
+    }
+
+    @Test
+    public void testEndgameSolverMatchesMinimax() throws Exception {
+        SplittableShuffleSource source = ShuffleSource.seeded(13);
+        EndgameSolver solver = new EndgameSolver(12, Long.MAX_VALUE);
+        int[] moves = new int[DurakState.MAX_MOVES];
+        int solved = 0;
+        for (int game = 0; game < 400; game++) {
+            DurakState state = DurakState.deal(source, game % 2);
+            while (!state.isOver()) {
+                int cards = Long.bitCount(state.getHand(0) | state.getHand(1) | state.getAttacks());
+                if (state.getDeckSize() == 0 && cards <= 7) {
+                    int value = solver.solve(state);
+                    Assert.assertEquals(minimax(state), value);
+                    DurakState child = state.copy();
+                    child.apply(solver.getBestMove());
+                    int childValue = child.toMove() == state.toMove() ? minimax(child) : -minimax(child);
+                    Assert.assertEquals(value, childValue);
+                    solved++;
+                }
+                int count = state.getMoves(moves);
+                state.apply(moves[source.nextInt(count)]);
+            }
+        }
+        Assert.assertTrue(solved > 100);
+    }
+
+    @Test
+    public void testSearchPlaysLegalMoves() throws Exception {
+        MctsPolicy search = new MctsPolicy(10000, 200, 2, 3);
+        DurakState state = DurakState.deal(ShuffleSource.seeded(5), 0);
+        int[] moves = new int[DurakState.MAX_MOVES];
+        while (!state.isOver()) {
+            int count = state.getMoves(moves);
+            int move = search.chooseMove(state, state.toMove());
+            boolean legal = false;
+            for (int i = 0; i < count; i++) {
+                legal |= moves[i] == move;
+            }
+            Assert.assertTrue(legal);
+            state.apply(move);
+        }
+        search.shutdown();
+    }
+
+    @Test
+    public void testTournamentDoesNotDependOnThreads() throws Exception {
+        DurakTournament.Report one = new DurakTournament(1).run(DurakTournament.GREEDY, DurakTournament.GREEDY, 100, 9);
+        DurakTournament.Report two = new DurakTournament(2).run(DurakTournament.GREEDY, DurakTournament.GREEDY, 100, 9);
+        Assert.assertEquals(200, one.getGames());
+        Assert.assertEquals(one.getWins(), two.getWins());
+        Assert.assertEquals(one.getDraws(), two.getDraws());
+        Assert.assertEquals(one.getWins(), one.getLosses());
+        Assert.assertEquals(0.5, one.getScore(), 0);
+        Assert.assertEquals(one.getLatencies(0).size(), one.getLatencies(1).size());
+        double[] interval = DurakTournament.wilson(0.5, 100);
+        Assert.assertEquals(0.4038, interval[0], 1e-4);
+        Assert.assertEquals(0.5962, interval[1], 1e-4);
+    }
+
+    /**
+     * Reports draws of a player to a tracker of player 1, the trump card last.
+     */
+    private static void reportDraws(CardTracker tracker, int player, long drawn, int trump) {
+        for (long m = drawn & ~(1L << trump); m != 0; m &= m - 1) {
+            if (player == 1) {
+                tracker.drawn(Long.numberOfTrailingZeros(m));
+            } else {
+                tracker.otherDrew();
+            }
+        }
+        if ((drawn & 1L << trump) != 0) {
+            if (player == 1) {
+                tracker.drawn(trump);
+            } else {
+                tracker.otherDrew();
+            }
+        }
+    }
+
+    @Test
+    public void testCardTrackerFollowsGame() throws Exception {
+        SplittableShuffleSource source = ShuffleSource.seeded(17);
+        int[] moves = new int[DurakState.MAX_MOVES];
+        for (int game = 0; game < 300; game++) {
+            DurakState state = DurakState.deal(source, game % 2);
+            int trump = state.getDeckCard(0);
+            CardTracker tracker = new CardTracker();
+            tracker.reset(trump, DurakState.DECK_SIZE);
+            int first = state.getAttacker();
+            reportDraws(tracker, first, state.getHand(first), trump);
+            reportDraws(tracker, 1 - first, state.getHand(1 - first), trump);
+            while (!state.isOver()) {
+                DurakState before = state.copy();
+                int mover = state.toMove();
+                int move = moves[source.nextInt(state.getMoves(moves))];
+                state.apply(move);
+                if (move != DurakState.PASS) {
+                    if (mover == 1) {
+                        tracker.played(move);
+                    } else {
+                        tracker.otherPlayed(move);
+                    }
+                } else if (mover == before.getAttacker()) {
+                    long table = before.getAttacks() | before.getDefenses();
+                    int defender = 1 - before.getAttacker();
+                    if (before.isTaking()) {
+                        if (defender == 1) {
+                            tracker.took(table);
+                        } else {
+                            tracker.otherTook(table);
+                        }
+                    }
+                    for (int p : new int[]{before.getAttacker(), defender}) {
+                        long drawn = state.getHand(p) & ~before.getHand(p) & ~table;
+                        reportDraws(tracker, p, drawn, trump);
+                    }
+                }
+                long hidden = state.getHand(0) & ~state.getKnown(0);
+                long deck = 0;
+                for (int i = 1; i < state.getDeckSize(); i++) {
+                    deck |= 1L << state.getDeckCard(i);
+                }
+                Assert.assertEquals(state.getKnown(0), tracker.getKnown());
+                Assert.assertEquals(hidden | deck, tracker.getUnseen());
+                Assert.assertEquals(Long.bitCount(state.getHand(0)), tracker.getOtherSize());
+                Assert.assertEquals(state.getDeckSize(), tracker.getDeckSize());
+                double inHand = 0;
+                for (int card = 0; card < Card.COUNT; card++) {
+                    inHand += tracker.getHandProbability(card);
+                    double total = tracker.getHandProbability(card) + tracker.getDeckProbability(card);
+                    boolean trumpInDeck = state.getDeckSize() > 0 && state.getDeckCard(0) == card;
+                    boolean possible = ((state.getHand(0) | deck) & 1L << card) != 0 || trumpInDeck;
+                    Assert.assertEquals(possible ? 1 : 0, total, 1e-9);
+                }
+                Assert.assertEquals(Long.bitCount(state.getHand(0)), inHand, 1e-9);
+                long sample = tracker.sampleHand(source);
+                Assert.assertEquals(Long.bitCount(state.getHand(0)), Long.bitCount(sample));
+                Assert.assertEquals(state.getKnown(0), sample & state.getKnown(0));
+            }
+        }
+    }
+
+    @Test
+    public void testSnapshotPlacesEveryCardOnce() throws Exception {
+        DurakGame game = new DurakGame();
+        game.setPlayer(new Player("test"));
+        game.betAction(1);
+        Card attack = game.getPlayer().getHand().getCard(0);
+        Assert.assertTrue(game.handCardClick(attack));
+        DurakState state = game.snapshot();
+        long deck = 0;
+        for (int i = 0; i < state.getDeckSize(); i++) {
+            deck |= 1L << state.getDeckCard(i);
+        }
+        long[] places = {state.getHand(DurakGame.PLAYER), state.getHand(DurakGame.OPPONENT),
+                state.getAttacks() | state.getDefenses(), deck};
+        long all = 0;
+        for (long place : places) {
+            Assert.assertEquals(0, all & place);
+            all |= place;
+        }
+        Assert.assertEquals(DurakState.DECK_SIZE, Long.bitCount(all));
+        Assert.assertEquals(5, Long.bitCount(places[0]));
+    }
+
+    @Test
+    public void testGameBoutsFollowRules() throws Exception {
+        SplittableShuffleSource source = ShuffleSource.seeded(19);
+        DurakPolicy policy = new GreedyPolicy();
+        int opponentTook = 0;
+        for (int g = 0; g < 300; g++) {
+            DurakGame game = new DurakGame();
+            game.setPlayer(new Player("test"));
+            game.betAction(1);
+            long pickedUp = 0;
+            int plies = 0;
+            while (!game.shouldEnd()) {
+                Assert.assertTrue(++plies < 1000);
+                DurakState state = game.snapshot();
+                long table = state.getAttacks() | state.getDefenses();
+                Assert.assertEquals(0, state.getHand(DurakGame.PLAYER) & state.getHand(DurakGame.OPPONENT));
+                Assert.assertEquals(0, (state.getHand(DurakGame.PLAYER) | state.getHand(DurakGame.OPPONENT)) & table);
+                Assert.assertEquals(game.taking, state.isTaking());
+                if (table == 0) {
+                    Assert.assertFalse(game.taking);
+                    Assert.assertEquals(pickedUp, state.getHand(DurakGame.OPPONENT) & pickedUp);
+                    pickedUp = 0;
+                }
+                if (game.isPlayersMove()) {
+                    long playable = game.getPlayableCards();
+                    Assert.assertEquals(state.cardMoves(), playable);
+                    for (Card card : game.getPlayer().getHand().getCards()) {
+                        if (!CardSet.contains(playable, card.getId())) {
+                            Assert.assertFalse(game.handCardClick(card));
+                        }
+                    }
+                    Assert.assertFalse(game.opponentsTurn ? game.stopAction() : game.takeAction());
+                    int count = CardSet.size(playable);
+                    int choice = source.nextInt(table != 0 ? count + 1 : count);
+                    if (choice == count) {
+                        Assert.assertTrue(game.opponentsTurn ? game.takeAction() : game.stopAction());
+                    } else {
+                        long m = playable;
+                        while (choice-- > 0) {
+                            m = CardSet.withoutFirst(m);
+                        }
+                        Assert.assertTrue(game.handCardClick(Card.byId(CardSet.first(m))));
+                    }
+                } else {
+                    Assert.assertTrue(game.isOpponentsMove());
+                    boolean defending = !game.opponentsTurn;
+                    int move = policy.chooseMove(state, DurakGame.OPPONENT);
+                    game.opponentMove(move);
+                    if (move == DurakState.PASS && defending) {
+                        ++opponentTook;
+                        pickedUp = table;
+                        DurakState after = game.snapshot();
+                        if (after.getTableSize() == 0) {
+                            Assert.assertEquals(table, after.getHand(DurakGame.OPPONENT) & table);
+                            pickedUp = 0;
+                        } else {
+                            Assert.assertTrue(game.taking);
+                        }
+                    }
+                }
+            }
+            Assert.assertTrue(game.getTableCards().isEmpty());
+            Assert.assertTrue(game.getDeck().isEmpty());
+        }
+        Assert.assertTrue(opponentTook > 0);
+    }
+
+    @Test
+    public void testForcedWinnerIsSolvedOncePerPosition() throws Exception {
+        DurakPolicy policy = new GreedyPolicy();
+        EndgameSolver exact = new EndgameSolver(EndgameSolver.DEFAULT_TABLE_BITS, EndgameSolver.DEFAULT_MAX_NODES);
+        int solved = 0;
+        for (int g = 0; g < 20; g++) {
+            DurakGame game = new DurakGame();
+            game.setPlayer(new Player("test"));
+            game.betAction(1);
+            while (!game.shouldEnd()) {
+                Future<Integer> winner = game.getForcedWinner();
+                Assert.assertEquals(game.getDeck().isEmpty(), winner != null);
+                if (winner != null) {
+                    Assert.assertSame(winner, game.getForcedWinner());
+                    int forced = winner.get();
+                    int expected = DurakGame.forcedWinner(exact, game.snapshot());
+                    if (forced >= 0 && expected >= 0) {
+                        Assert.assertEquals(expected, forced);
+                        ++solved;
+                    }
+                }
+                int player = game.isPlayersMove() ? DurakGame.PLAYER : DurakGame.OPPONENT;
+                int move = policy.chooseMove(game.snapshot(), player);
+                if (player == DurakGame.OPPONENT) {
+                    game.opponentMove(move);
+                } else if (move != DurakState.PASS) {
+                    Assert.assertTrue(game.handCardClick(Card.byId(move)));
+                } else {
+                    Assert.assertTrue(game.opponentsTurn ? game.takeAction() : game.stopAction());
+                }
+                if (winner != null && !game.shouldEnd()) {
+                    Assert.assertNotSame(winner, game.getForcedWinner());
+                }
+            }
+        }
+        Assert.assertTrue(solved > 0);
+    }
+}
@@ -0,0 +1,109 @@
+package org.sillylossy.games.holdem;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.sillylossy.games.common.cards.Card;
+import org.sillylossy.games.common.cards.CardRank;
+import org.sillylossy.games.common.cards.CardSuit;
+import org.sillylossy.games.common.cards.CardSet;
+
+import java.util.Random;
+
+public class EquityCalculatorTest {
+
+    /**
+     * Reference value of exactly five cards, scored like {@link SevenCardEvaluator}.
+     */
+    private static int fiveCardValue(int[] ids) {
+        int[] counts = new int[Card.RANKS];
+        int ranks = 0;
+        int suits = 0;
+        for (int id : ids) {
+            counts[Card.rankOf(id)]++;
+            ranks |= 1 << Card.rankOf(id);
+            suits |= 1 << Card.suitOf(id);
+        }
+        boolean flush = Integer.bitCount(suits) == 1;
+        int straightTop = -1;
+        if (Integer.bitCount(ranks) == 5) {
+            if (ranks / Integer.lowestOneBit(ranks) == 0x1F) {
+                straightTop = 31 - Integer.numberOfLeadingZeros(ranks);
+            } else if (ranks == 0x100F) {
+                straightTop = 3;
+            }
+        }
+        if (straightTop >= 0) {
+            return (flush ? SevenCardEvaluator.STRAIGHT_FLUSH : SevenCardEvaluator.STRAIGHT) << 20 | straightTop;
+        }
+        int kickers = 0;
+        int maxCount = 0;
+        int pairs = 0;
+        for (int count = 4; count >= 1; count--) {
+            for (int rank = Card.RANKS - 1; rank >= 0; rank--) {
+                if (counts[rank] == count) {
+                    kickers = kickers << 4 | rank;
+                    maxCount = Math.max(maxCount, count);
+                    pairs += count == 2 ? 1 : 0;
+                }
+            }
+        }
+        int category;
+        if (maxCount == 4) {
+            category = SevenCardEvaluator.FOUR_OF_KIND;
+        } else if (maxCount == 3) {
+            category = pairs == 1 ? SevenCardEvaluator.FULL_HOUSE : SevenCardEvaluator.THREE_OF_KIND;
+        } else if (flush) {
+            category = SevenCardEvaluator.FLUSH;
+        } else {
+            category = pairs;
+        }
+        return category << 20 | kickers;
+    }
+
+    @Test
+    public void testSevenCardsMatchBestFive() throws Exception {
+        Random random = new Random(42);
+        int[] cards = new int[7];
+        int[] five = new int[5];
+        for (int trial = 0; trial < 200000; trial++) {
+            long mask = 0;
+            for (int n = 0; n < cards.length; ) {
+                int id = random.nextInt(Card.COUNT);
+                if ((mask & (1L << id)) == 0) {
+                    mask |= 1L << id;
+                    cards[n++] = id;
+                }
+            }
+            int best = 0;
+            for (int skip1 = 0; skip1 < cards.length; skip1++) {
+                for (int skip2 = skip1 + 1; skip2 < cards.length; skip2++) {
+                    for (int i = 0, n = 0; i < cards.length; i++) {
+                        if (i != skip1 && i != skip2) {
+                            five[n++] = cards[i];
+                        }
+                    }
+                    best = Math.max(best, fiveCardValue(five));
+                }
+            }
+            Assert.assertEquals(best, SevenCardEvaluator.evaluate(mask));
+        }
+    }
+
+    @Test
+    public void testEquity() throws Exception {
+        long aces = CardSet.maskOf(Card.of(CardRank.ACE, CardSuit.SPADES), Card.of(CardRank.ACE, CardSuit.HEARTS));
+        long kings = CardSet.maskOf(Card.of(CardRank.KING, CardSuit.CLUBS), Card.of(CardRank.KING, CardSuit.DIAMONDS));
+        EquityCalculator.Result exact = EquityCalculator.enumerate(new long[]{aces, kings}, 0);
+        Assert.assertEquals(1712304, exact.getRunouts());
+        Assert.assertEquals(1, exact.getEquity(0) + exact.getEquity(1), 1e-9);
+        Assert.assertTrue(exact.getEquity(0) > 0.8 && exact.getEquity(0) < 0.83);
+        EquityCalculator.Result sampled = EquityCalculator.sample(new long[]{aces, kings}, 0, 200000, 1);
+        Assert.assertEquals(exact.getEquity(0), sampled.getEquity(0), 0.01);
+        long board = CardSet.maskOf(Card.of(CardRank.KING, CardSuit.SPADES), Card.of(CardRank.TWO, CardSuit.HEARTS),
+                Card.of(CardRank.SEVEN, CardSuit.CLUBS), Card.of(CardRank.NINE, CardSuit.DIAMONDS),
+                Card.of(CardRank.THREE, CardSuit.CLUBS));
+        EquityCalculator.Result river = EquityCalculator.enumerate(new long[]{aces, kings}, board);
+        Assert.assertEquals(1, river.getRunouts());
+        Assert.assertEquals(1, river.getWins(1));
+    }
+}
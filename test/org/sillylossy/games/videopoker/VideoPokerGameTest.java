@@ -5,8 +5,16 @@ import org.junit.Test;
 import org.sillylossy.games.common.cards.Card;
 import org.sillylossy.games.common.cards.CardRank;
 import org.sillylossy.games.common.cards.CardSuit;
+import org.sillylossy.games.common.cards.Deck;
+import org.sillylossy.games.common.cards.ShuffleSource;
+import org.sillylossy.games.common.players.Player;
 
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.HashSet;
 import java.util.Random;
+import java.util.Set;
 import java.util.concurrent.ThreadLocalRandom;
 
 import static org.sillylossy.games.videopoker.PokerCombinations.getCombinations;
@@ -147,4 +155,280 @@ public class VideoPokerGameTest {
         shuffleArray(cards);
         Assert.assertTrue(getCombinations(cards, CardRank.TWO).hasRoyalFlush());
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testEvaluatorMatchesRules() throws Exception {
+        Card[] cards = new Card[HandEvaluator.HAND_SIZE];
+        for (int a = 0; a < Card.COUNT; a++) {
+            for (int b = a + 1; b < Card.COUNT; b++) {
+                for (int c = b + 1; c < Card.COUNT; c++) {
+                    for (int d = c + 1; d < Card.COUNT; d++) {
+                        for (int e = d + 1; e < Card.COUNT; e++) {
+                            cards[0] = Card.byId(a);
+                            cards[1] = Card.byId(b);
+                            cards[2] = Card.byId(c);
+                            cards[3] = Card.byId(d);
+                            cards[4] = Card.byId(e);
+                            Assert.assertEquals(getCombinations(cards, CardRank.JACK).getBestCombinationByRules(),
+                                    HandEvaluator.evaluate(cards, CardRank.JACK));
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testBatchEvaluatorMatchesRules() throws Exception {
+        int minPair = Card.rankIndexOf(CardRank.JACK);
+        int[] ids = new int[HandTable.BINOMIAL[Card.COUNT - 1][4] * HandEvaluator.HAND_SIZE];
+        byte[] lanes = new byte[ids.length / HandEvaluator.HAND_SIZE];
+        byte[] scalar = new byte[lanes.length];
+        Card[] cards = new Card[HandEvaluator.HAND_SIZE];
+        for (int a = 0; a < Card.COUNT; a++) {
+            int hands = 0;
+            for (int b = a + 1; b < Card.COUNT; b++) {
+                for (int c = b + 1; c < Card.COUNT; c++) {
+                    for (int d = c + 1; d < Card.COUNT; d++) {
+                        for (int e = d + 1; e < Card.COUNT; e++) {
+                            int i = hands++ * HandEvaluator.HAND_SIZE;
+                            ids[i] = e;
+                            ids[i + 1] = a;
+                            ids[i + 2] = d;
+                            ids[i + 3] = b;
+                            ids[i + 4] = c;
+                        }
+                    }
+                }
+            }
+            BatchEvaluator.evaluateLanes(ids, hands, minPair, lanes);
+            BatchEvaluator.evaluateScalar(ids, hands, minPair, scalar);
+            for (int h = 0; h < hands; h++) {
+                for (int k = 0; k < cards.length; k++) {
+                    cards[k] = Card.byId(ids[h * HandEvaluator.HAND_SIZE + k]);
+                }
+                PokerCombinations.Combination expected = getCombinations(cards, CardRank.JACK).getBestCombinationByRules();
+                Assert.assertEquals(expected.ordinal(), lanes[h]);
+                Assert.assertEquals(expected.ordinal(), scalar[h]);
+            }
+        }
+    }
+
+    @Test
+    public void testHandTableMatchesEvaluator() throws Exception {
+        Variant variant = Variant.JACKS_OR_BETTER;
+        File file = File.createTempFile("jacks-or-better", ".tbl");
+        file.delete();
+        try {
+            ByteBuffer table = variant.loadOrGenerate(file);
+            Assert.assertTrue(table.isDirect());
+            Assert.assertEquals(HandTable.HANDS, table.capacity());
+            int jack = Card.rankIndexOf(CardRank.JACK);
+            boolean[] seen = new boolean[HandTable.HANDS];
+            for (int a = 0; a < Card.COUNT; a++) {
+                for (int b = a + 1; b < Card.COUNT; b++) {
+                    for (int c = b + 1; c < Card.COUNT; c++) {
+                        for (int d = c + 1; d < Card.COUNT; d++) {
+                            for (int e = d + 1; e < Card.COUNT; e++) {
+                                long mask = 1L << a | 1L << b | 1L << c | 1L << d | 1L << e;
+                                int index = HandTable.index(mask);
+                                Assert.assertFalse(seen[index]);
+                                seen[index] = true;
+                                Assert.assertEquals(HandEvaluator.evaluate(mask, jack), table.get(index));
+                            }
+                        }
+                    }
+                }
+            }
+            ByteBuffer loaded = variant.load(file);
+            Assert.assertTrue(loaded.isDirect());
+            Assert.assertEquals(table, loaded);
+            try {
+                Variant.DEUCES_WILD.load(file);
+                Assert.fail();
+            } catch (IOException e) {
+                // expected: another variant's table
+            }
+        } finally {
+            file.delete();
+        }
+    }
+
+    @Test
+    public void testCanonicalClasses() throws Exception {
+        java.util.Set<Long> classes = new java.util.HashSet<>();
+        for (int a = 0; a < Card.COUNT; a++) {
+            for (int b = a + 1; b < Card.COUNT; b++) {
+                for (int c = b + 1; c < Card.COUNT; c++) {
+                    for (int d = c + 1; d < Card.COUNT; d++) {
+                        for (int e = d + 1; e < Card.COUNT; e++) {
+                            classes.add(HandCanonicalizer.canonicalize(1L << a | 1L << b | 1L << c | 1L << d | 1L << e));
+                        }
+                    }
+                }
+            }
+        }
+        Assert.assertEquals(134459, classes.size());
+    }
+
+    @Test
+    public void testCachedHoldValuesMatchSolver() throws Exception {
+        int[] pays = {0, 5, 10, 15, 20, 30, 45, 125, 250, 1250};
+        HoldCache cache = new HoldCache(16);
+        Card[] cards = new Card[]{
+                new Card(CardRank.TEN, CardSuit.HEARTS),
+                new Card(CardRank.KING, CardSuit.HEARTS),
+                new Card(CardRank.TEN, CardSuit.SPADES),
+                new Card(CardRank.QUEEN, CardSuit.HEARTS),
+                new Card(CardRank.FOUR, CardSuit.CLUBS)
+        };
+        Card[] isomorphic = new Card[]{
+                new Card(CardRank.QUEEN, CardSuit.DIAMONDS),
+                new Card(CardRank.TEN, CardSuit.CLUBS),
+                new Card(CardRank.FOUR, CardSuit.SPADES),
+                new Card(CardRank.KING, CardSuit.DIAMONDS),
+                new Card(CardRank.TEN, CardSuit.DIAMONDS)
+        };
+        Variant variant = Variant.JACKS_OR_BETTER;
+        double[] expected = HoldSolver.solve(cards, variant, pays);
+        double[] cached = cache.solve(cards, variant, pays);
+        double[] hit = cache.solve(isomorphic, variant, variant.getPays(1));
+        Assert.assertEquals(1, cache.getHits());
+        int[] order = {4, 3, 1, 0, 2};
+        for (int pattern = 0; pattern < HoldSolver.PATTERNS; pattern++) {
+            Assert.assertEquals(expected[pattern], cached[pattern], 1e-9);
+            int remapped = 0;
+            for (int i = 0; i < order.length; i++) {
+                if ((pattern & (1 << i)) != 0) {
+                    remapped |= 1 << order[i];
+                }
+            }
+            Assert.assertEquals(expected[pattern], hit[remapped] * 5, 1e-9);
+        }
+    }
+
+    @Test
+    public void testReturnOfFullPayJacksOrBetter() throws Exception {
+        int[] pays = Variant.JACKS_OR_BETTER.getPays(1);
+        pays[PokerCombinations.Combination.ROYAL_FLUSH.ordinal()] = 800;
+        RtpCalculator calculator = new RtpCalculator(Variant.JACKS_OR_BETTER);
+        Assert.assertEquals(134459, calculator.getClassCount());
+        RtpCalculator.Report report = calculator.calculate(pays, 1, null);
+        Assert.assertEquals(0.995439, report.getRtp(), 1e-6);
+        double total = 0;
+        for (int category = 0; category < pays.length; category++) {
+            total += report.getHitFrequency(category);
+        }
+        Assert.assertEquals(1, total, 1e-9);
+    }
+
+    @Test
+    public void testReturnOfVariants() throws Exception {
+        Variant bonus = Variant.BONUS_POKER;
+        Assert.assertEquals(0.991660, new RtpCalculator(bonus).calculate(bonus.getPays(1), 1, null).getRtp(), 1e-6);
+        Variant deuces = Variant.DEUCES_WILD;
+        Assert.assertEquals(1.007620, new RtpCalculator(deuces).calculate(deuces.getPays(1), 1, null).getRtp(), 1e-6);
+    }
+
+    @Test
+    public void testMultiPlayKeepsHeldCards() throws Exception {
+        Deck deck = Deck.getFullDeck(ShuffleSource.seeded(7));
+        Card[] dealt = new Card[5];
+        for (int i = 0; i < dealt.length; i++) {
+            dealt[i] = deck.draw();
+        }
+        MultiPlay multiPlay = new MultiPlay();
+        Variant variant = Variant.JACKS_OR_BETTER;
+        multiPlay.play(dealt, 0x1F, deck, 99, ShuffleSource.seeded(1), variant);
+        Assert.assertEquals(99, multiPlay.getCount());
+        int expected = HandEvaluator.evaluate(dealt, CardRank.JACK).ordinal();
+        for (int h = 0; h < multiPlay.getCount(); h++) {
+            Assert.assertEquals(expected, multiPlay.getCategory(h));
+        }
+        Assert.assertEquals(47, deck.cardsLeft());
+        int[] pays = variant.getPays(1);
+        multiPlay.play(dealt, 0, deck, 100, ShuffleSource.seeded(1), variant);
+        int[] counts = multiPlay.getCategoryCounts(variant.getCategoryCount());
+        int total = 0;
+        int payout = 0;
+        for (int i = 0; i < counts.length; i++) {
+            total += counts[i];
+            payout += counts[i] * pays[i];
+        }
+        Assert.assertEquals(100, total);
+        Assert.assertEquals(payout, multiPlay.getPayout(pays));
+    }
+
+    @Test
+    public void testMultiPlayDrawsFromOwnDeckCopy() throws Exception {
+        Deck deck = Deck.getFullDeck(ShuffleSource.seeded(9));
+        Card[] dealt = new Card[5];
+        long dealtMask = 0;
+        for (int i = 0; i < dealt.length; i++) {
+            dealt[i] = deck.draw();
+            dealtMask |= 1L << dealt[i].getId();
+        }
+        int[] before = new int[Card.COUNT];
+        int size = deck.copyCards(before);
+        long deckMask = 0;
+        for (int i = 0; i < size; i++) {
+            deckMask |= 1L << before[i];
+        }
+        int pattern = 0x05;
+        MultiPlay multiPlay = new MultiPlay();
+        multiPlay.play(dealt, pattern, deck, 100, ShuffleSource.seeded(3), Variant.JACKS_OR_BETTER);
+        Set<Long> distinct = new HashSet<>();
+        for (int h = 0; h < multiPlay.getCount(); h++) {
+            long hand = 0;
+            for (int n = 0; n < 5; n++) {
+                int id = multiPlay.getCardId(h, n);
+                Assert.assertEquals(0, hand & 1L << id);
+                hand |= 1L << id;
+                if ((pattern & 1 << n) != 0) {
+                    Assert.assertEquals(dealt[n].getId(), id);
+                } else {
+                    Assert.assertEquals(0, dealtMask & 1L << id);
+                    Assert.assertNotEquals(0, deckMask & 1L << id);
+                }
+            }
+            distinct.add(hand);
+        }
+        Assert.assertTrue(distinct.size() > 90);
+
+        int[] after = new int[Card.COUNT];
+        Assert.assertEquals(size, deck.copyCards(after));
+        Assert.assertArrayEquals(before, after);
+        Assert.assertEquals(47, deck.cardsLeft());
+    }
+
+    @Test
+    public void testBetIsCoveredByScore() throws Exception {
+        VideoPokerGame game = new VideoPokerGame();
+        Player player = new Player("test");
+        game.setPlayer(player);
+        game.setHandCount(100);
+        player.decreaseScore(player.getScore() - 50);
+        Assert.assertEquals(10, game.getRoundHandCount());
+        Assert.assertEquals(5, game.getMaxBet());
+        try {
+            game.betAction(6);
+            Assert.fail();
+        } catch (IllegalArgumentException e) {
+            Assert.assertEquals(50, player.getScore());
+        }
+        game.betAction(game.getMaxBet());
+        Assert.assertEquals(0, player.getScore());
+        game.discard();
+        Assert.assertEquals(50, player.getScore());
+
+        player.decreaseScore(48);
+        Assert.assertEquals(1, game.getRoundHandCount());
+        Assert.assertEquals(2, game.getMaxBet());
+        game.setHandCount(3);
+        player.increaseScore(1);
+        Assert.assertEquals(3, game.getRoundHandCount());
+        Assert.assertEquals(1, game.getMaxBet());
+        game.betAction(1);
+        Assert.assertEquals(0, player.getScore());
+    }
+}